@@ -0,0 +1,156 @@
+package ru.practicum.shareit.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItGateway;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// every operation opens `connections` requests to the gateway at once and waits for all of them; the server stub
+// answers after latencyMs without holding a thread. platform: blocking transport on Tomcat's 200 workers,
+// virtual: blocking transport on virtual threads (Java 21), reactive: WebClient. `completed` is requests per second.
+// Client, gateway and stub share one JVM, so 10000 connections need about 40000 file descriptors
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "-Djdk.httpclient.keepalive.timeout=60"})
+public class ConcurrentConnectionsBenchmark {
+
+    @Param({"platform", "virtual", "reactive"})
+    public String mode;
+
+    @Param({"10000"})
+    public int connections;
+
+    @Param({"200"})
+    public long latencyMs;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ScheduledExecutorService delays;
+    private ConfigurableApplicationContext gateway;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Requests {
+        public long completed;
+        public long failed;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        // the stub closes idle connections beyond this, and the gateway would then reuse a dead pooled one
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(connections));
+        serverExecutor = Executors.newFixedThreadPool(4);
+        delays = Executors.newScheduledThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), connections);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            delays.schedule(() -> respond(exchange, body), latencyMs, TimeUnit.MILLISECONDS);
+        });
+        server.start();
+
+        String connectionLimit = String.valueOf(connections);
+        gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0",
+                        "--shareit-server.url=http://" + server.getAddress().getHostString() + ":"
+                                + server.getAddress().getPort(),
+                        "--shareit-server.transport=" + ("reactive".equals(mode) ? "reactive" : "blocking"),
+                        "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                        "--server.tomcat.max-connections=" + (connections + 1000),
+                        "--server.tomcat.accept-count=" + connectionLimit,
+                        "--shareit-server.http.max-total=" + connectionLimit,
+                        "--shareit-server.http.max-per-route=" + connectionLimit,
+                        "--shareit-server.http.max-pending=" + connectionLimit,
+                        "--shareit-server.http.pool-timeout=60s",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web.client.RestTemplate=WARN");
+        String port = gateway.getEnvironment().getProperty("local.server.port");
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings?state=ALL"))
+                .header("X-Sharer-User-Id", "1")
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        gateway.close();
+        server.stop(0);
+        delays.shutdownNow();
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void wave(Requests requests) {
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            calls[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, e) -> e == null && response.statusCode() == 200
+                            ? completed.incrementAndGet() : failed.incrementAndGet());
+        }
+        CompletableFuture.allOf(calls).join();
+        requests.completed += completed.get();
+        requests.failed += failed.get();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) {
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.client.HttpClientConfig;
+import ru.practicum.shareit.client.HttpClientProperties;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
+import ru.practicum.shareit.client.RestTemplateTransport;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.client.WebClientTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// BaseClient forwarding against a loopback stub, so only the gateway side of a request is measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForwardingBenchmark {
+    @Param({"10", "100"})
+    public int bookings;
+
+    @Param({"blocking", "reactive"})
+    public String transport;
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private WebClientTransport webClientTransport;
+    private BookingClient bookingClient;
+    private BookingCreateDto createDto;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] list = IntStream.rangeClosed(1, bookings)
+                .mapToObj(ForwardingBenchmark::booking)
+                .collect(Collectors.joining(",", "[", "]"))
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] single = booking(1).getBytes(StandardCharsets.UTF_8);
+
+        // headers and body go out in separate writes; without TCP_NODELAY each call waits out a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> respond(exchange,
+                "GET".equals(exchange.getRequestMethod()) ? list : single));
+        server.start();
+
+        String serverUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        HttpClientProperties properties = new HttpClientProperties();
+        ServerTransport serverTransport;
+        if ("reactive".equals(transport)) {
+            webClientTransport = new WebClientTransport(serverUrl, WebClient.builder(), properties);
+            serverTransport = webClientTransport;
+        } else {
+            HttpClientConfig config = new HttpClientConfig();
+            httpClient = config.httpClient(config.connectionManager(properties), properties);
+            serverTransport = new RestTemplateTransport(serverUrl, new RestTemplateBuilder(),
+                    config.clientHttpRequestFactory(httpClient));
+        }
+        bookingClient = new BookingClient(serverTransport, new ResponseCache(new ResponseCacheProperties()),
+                new SimpleMeterRegistry());
+        createDto = new BookingCreateDto(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        if (webClientTransport != null) {
+            webClientTransport.destroy();
+        }
+        server.stop(0);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> getBookings() {
+        return bookingClient.getAllByUserId(1L, BookingState.ALL, 0L, 20L, null).block();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> createBooking() {
+        return bookingClient.createBooking(1L, createDto).block();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String booking(int id) {
+        return "{\"id\":" + id + ",\"start\":\"2030-01-01T10:00:00\",\"end\":\"2030-01-02T10:00:00\"," +
+                "\"status\":\"APPROVED\",\"booker\":{\"id\":2,\"name\":\"Booker\",\"email\":\"booker@mail.com\"}," +
+                "\"item\":{\"id\":" + id + ",\"name\":\"Item " + id + "\",\"description\":\"Description\"," +
+                "\"available\":true}}";
+    }
+}
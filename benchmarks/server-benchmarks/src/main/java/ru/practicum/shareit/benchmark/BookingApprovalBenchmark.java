@@ -0,0 +1,91 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.ConcurrencyFailureException;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 8 clients at once, each booking a fresh slot of one owner's items and approving it. With items=1 every approval
+// queues on the same item row, with items=5 they mostly do not; the gap is the price of serialising approvals per
+// item. `conflicts` counts approvals that failed on a booking version and were repeated. Every booking is deleted
+// again, so the items do not pile up thousands of them over a run.
+// Not wrapped in ServerState.inRequest: its read-only transaction would never flush the new bookings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BookingApprovalBenchmark {
+    @Param({"1", "5"})
+    public int items;
+
+    private BookingService bookingService;
+    private BookingRepository bookingRepository;
+    private long ownerId;
+    private long bookerId;
+    private LocalDateTime from;
+    private final AtomicLong slots = new AtomicLong();
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Conflicts {
+        public long conflicts;
+    }
+
+    @Setup
+    public void setUp(ServerState server) {
+        bookingService = server.getBean(BookingService.class);
+        bookingRepository = server.getBean(BookingRepository.class);
+        // Dataset gives user 1 the items 1 to ITEMS_PER_USER, all of them available
+        ownerId = 1;
+        bookerId = 2;
+        from = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Benchmark
+    public BookingDto bookAndApprove(Conflicts conflicts) {
+        long slot = slots.getAndIncrement();
+        long itemId = slot % items + 1;
+        // slots of one item never overlap, so every approval is expected to succeed
+        LocalDateTime start = from.plusHours(2 * (slot / items));
+        BookingCreateDto booking = new BookingCreateDto();
+        booking.setItemId(itemId);
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(1));
+        Long bookingId = bookingService.addBooking(booking, bookerId).getId();
+        BookingDto approved = approve(bookingId, conflicts);
+        bookingRepository.deleteById(bookingId);
+        return approved;
+    }
+
+    private BookingDto approve(Long bookingId, Conflicts conflicts) {
+        while (true) {
+            try {
+                return bookingService.setApprove(ownerId, true, bookingId);
+            } catch (ConcurrencyFailureException e) {
+                conflicts.conflicts++;
+            }
+        }
+    }
+}
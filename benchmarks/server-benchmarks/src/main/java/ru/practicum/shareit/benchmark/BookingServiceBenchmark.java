@@ -0,0 +1,48 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingServiceBenchmark {
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    public String state;
+
+    private BookingService bookingService;
+    private long userId;
+
+    @Setup
+    public void setUp(ServerState server) {
+        bookingService = server.getBean(BookingService.class);
+        userId = server.middleUserId();
+    }
+
+    @Benchmark
+    public List<BookingDto> getAllByUserId(ServerState server) {
+        return server.inRequest(() -> bookingService.getAllByUserId(userId, state, 0L, 20L));
+    }
+
+    @Benchmark
+    public List<BookingDto> getAllByOwnerId(ServerState server) {
+        return server.inRequest(() -> bookingService.getAllByOwnerId(userId, state, 0L, 20L));
+    }
+}
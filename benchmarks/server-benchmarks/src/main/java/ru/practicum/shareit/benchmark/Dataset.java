@@ -0,0 +1,65 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class Dataset {
+    static final int ITEMS_PER_USER = 5;
+    static final int BOOKINGS_PER_ITEM = 10;
+    static final int COMMENTS_PER_ITEM = 2;
+    private static final String[] STATUSES = {"APPROVED", "APPROVED", "WAITING", "REJECTED", "APPROVED"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int users;
+
+    public void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> userRows = new ArrayList<>();
+        List<Object[]> requestRows = new ArrayList<>();
+        for (int user = 1; user <= users; user++) {
+            userRows.add(new Object[]{"User " + user, "user" + user + "@mail.com"});
+            requestRows.add(new Object[]{"Request of user " + user, user, Timestamp.valueOf(now.minusMinutes(user))});
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", userRows);
+        jdbcTemplate.batchUpdate("insert into requests (description, requestor_id, created) values (?, ?, ?)", requestRows);
+
+        List<Object[]> itemRows = new ArrayList<>();
+        List<Object[]> bookingRows = new ArrayList<>();
+        List<Object[]> commentRows = new ArrayList<>();
+        int item = 0;
+        for (int owner = 1; owner <= users; owner++) {
+            for (int i = 0; i < ITEMS_PER_USER; i++) {
+                item++;
+                Integer request = item % 3 == 0 ? owner % users + 1 : null;
+                itemRows.add(new Object[]{"Item " + item, "Description of item " + item, item % 10 != 0, owner, request});
+                for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                    int booker = (owner + j) % users + 1;
+                    LocalDateTime start = now.plusDays(j - BOOKINGS_PER_ITEM / 2).plusHours(i);
+                    bookingRows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(12)),
+                            item, booker, STATUSES[j % STATUSES.length]});
+                    if (j < COMMENTS_PER_ITEM) {
+                        commentRows.add(new Object[]{"Comment " + j + " on item " + item, item, booker,
+                                Timestamp.valueOf(start.plusDays(1))});
+                    }
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into items (name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?)", itemRows);
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?)", bookingRows);
+        jdbcTemplate.batchUpdate("insert into comments (text, item_id, author_id, created) values (?, ?, ?, ?)",
+                commentRows);
+        // the rows above are numbered by the identity columns, so entities saved during a run start past them
+        for (String table : new String[]{"users", "requests", "items", "bookings", "comments"}) {
+            Long next = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 50 from " + table, Long.class);
+            jdbcTemplate.execute("alter sequence " + table + "_seq restart with " + next);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemServiceBenchmark {
+    private ItemService itemService;
+    private long userId;
+
+    @Setup
+    public void setUp(ServerState server) {
+        itemService = server.getBean(ItemService.class);
+        userId = server.middleUserId();
+    }
+
+    @Benchmark
+    public List<ItemDto> getAllUserItems(ServerState server) {
+        return server.inRequest(() -> itemService.getAllUserItems(userId));
+    }
+
+    @Benchmark
+    public List<ItemDto> searchItemsByName(ServerState server) {
+        return server.inRequest(() -> itemService.searchItemsByName("item 1", 0L, 20L));
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.CommentMapperImpl;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private ModelMapper modelMapper;
+    private CommentMapper commentMapper;
+    private ItemMapper itemMapper;
+    private BookingMapper bookingMapper;
+    private Comment comment;
+    private Booking booking;
+    private Item item;
+    private List<Item> page;
+
+    @Setup
+    public void setUp() {
+        modelMapper = modelMapper();
+        commentMapper = new CommentMapperImpl();
+        itemMapper = new ItemMapperImpl();
+        bookingMapper = new BookingMapper();
+
+        User user = new User(1L, "Author", "author@mail.com");
+        Request request = new Request(3L, "Need a drill", user, LocalDateTime.now());
+        item = new Item(2L, "Drill", "Cordless drill", true, user, request);
+        comment = new Comment();
+        comment.setId(4L);
+        comment.setText("Works great");
+        comment.setItem(item);
+        comment.setUser(user);
+        comment.setCreated(LocalDateTime.now());
+        booking = new Booking(5L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), item, user,
+                BookingStatus.APPROVED);
+        page = LongStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(id -> new Item(id, "Item " + id, "Description " + id, true, user, request))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public CommentDto commentModelMapper() {
+        return modelMapper.map(comment, CommentDto.class);
+    }
+
+    @Benchmark
+    public CommentDto commentMapStruct() {
+        return commentMapper.toDto(comment);
+    }
+
+    @Benchmark
+    public ItemRequestDto itemModelMapper() {
+        return modelMapper.map(item, ItemRequestDto.class);
+    }
+
+    @Benchmark
+    public ItemRequestDto itemMapStruct() {
+        return itemMapper.toRequestDto(item);
+    }
+
+    @Benchmark
+    public ItemDto itemDtoMapStruct() {
+        return itemMapper.toDto(item);
+    }
+
+    @Benchmark
+    public BookingDto bookingMapper() {
+        return bookingMapper.toDto(booking);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> requestPageModelMapper() {
+        return page.stream()
+                .map(pageItem -> modelMapper.map(pageItem, ItemRequestDto.class))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> requestPageMapStruct() {
+        return page.stream()
+                .map(itemMapper::toRequestDto)
+                .collect(Collectors.toList());
+    }
+
+    // the TypeMaps of the former ModelMapperConfig
+    private static ModelMapper modelMapper() {
+        ModelMapper mapper = new ModelMapper();
+
+        mapper.createTypeMap(Comment.class, CommentDto.class)
+                .addMappings(mapping -> mapping.map(src -> src.getUser().getName(), CommentDto::setAuthorName));
+
+        mapper.createTypeMap(Item.class, ItemRequestDto.class)
+                .addMappings(mapping -> {
+                    mapping.map(Item::getName, ItemRequestDto::setName);
+                    mapping.map(Item::getDescription, ItemRequestDto::setDescription);
+                    mapping.map(Item::getAvailable, ItemRequestDto::setAvailable);
+                    mapping.map(src -> src.getRequest().getId(), ItemRequestDto::setRequestId);
+                });
+
+        return mapper;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MappingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.search.NgramItemSearchIndex;
+
+import java.util.function.Supplier;
+
+@State(Scope.Benchmark)
+public class ServerState {
+    @Param({"100", "1000"})
+    public int users;
+
+    @Param({"memory"})
+    public String searchBackend;
+
+    // false measures the booking listing queries, true mostly hits of the per-second page cache
+    @Param({"true", "false"})
+    public boolean bookingListingCache;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "shareit.search.backend=" + searchBackend,
+                        "shareit.booking.listing-cache=" + bookingListingCache)
+                .run();
+        new Dataset(context.getBean(JdbcTemplate.class), users).seed();
+        context.getBeansOfType(NgramItemSearchIndex.class).values().forEach(NgramItemSearchIndex::rebuild);
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // services rely on open-in-view for lazy associations, so each call gets its own session like a request would
+    public <T> T inRequest(Supplier<T> call) {
+        return transactionTemplate.execute(status -> call.get());
+    }
+
+    public long middleUserId() {
+        return users / 2 + 1;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadsConfigTest {
+
+    @Test
+    void protocolHandlerRunsRequestsOnVirtualThreads() throws Exception {
+        Http11NioProtocol protocol = new Http11NioProtocol();
+        new VirtualThreadsConfig().virtualThreadsProtocolHandlerCustomizer().customize(protocol);
+
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        protocol.getExecutor().execute(() -> thread.complete(Thread.currentThread().toString()));
+
+        String name = thread.get(5, TimeUnit.SECONDS);
+        assertTrue(name.startsWith("VirtualThread") && name.contains("http-vt-"), name);
+    }
+}
@@ -1,49 +1,86 @@
 package ru.practicum.shareit.Item;
 
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.Item.dto.CommentText;
 import ru.practicum.shareit.Item.dto.ItemDto;
 import ru.practicum.shareit.Item.dto.ItemRequestDto;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import ru.practicum.shareit.client.CacheRegion;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    // items of a request are listed with it
+    private static final Set<CacheRegion> ITEM_WRITE = EnumSet.of(CacheRegion.ITEMS, CacheRegion.SEARCH, CacheRegion.REQUESTS);
 
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+    public ItemClient(ServerTransport transport, ResponseCache cache, MeterRegistry registry) {
+        super(transport, cache, API_PREFIX, registry);
     }
 
-    public ResponseEntity<Object> addItem(Long userId, ItemRequestDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> addItem(Long userId, ItemRequestDto itemDto) {
+        return invalidating(ITEM_WRITE, post("", userId, itemDto));
     }
 
-    public ResponseEntity<Object> updateItem(Long userId, Long id, ItemDto itemDto) {
-        return patch("/{id}", userId, Map.of("id", id), itemDto);
+    public Mono<ResponseEntity<Object>> addItems(Long userId, List<ItemRequestDto> items) {
+        return invalidating(ITEM_WRITE, post("/batch", userId, items));
     }
 
-    public ResponseEntity<Object> getItemById(Long userId, Long id) {
-        return get("/{id}", userId, Map.of("id", id));
+    public Mono<ResponseEntity<Object>> updateItem(Long userId, Long id, ItemDto itemDto) {
+        return invalidating(ITEM_WRITE, patch("/{id}", userId, Map.of("id", id), itemDto));
     }
 
-    public ResponseEntity<Object> getAllUserItems(Long userId) {
+    public Mono<ResponseEntity<Object>> getItemById(Long userId, Long id, String ifNoneMatch) {
+        return cachedGet(CacheRegion.ITEMS, "/{id}", userId, Map.of("id", id), ifNoneMatch);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllUserItems(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> searchItemsByName(String text) {
-        return get("/search?text={text}", null, Map.of("text", text));
+    public Mono<ResponseEntity<Object>> searchItemsByName(String text, Long from, Long size) {
+        return cachedGet(CacheRegion.SEARCH, "/search?text={text}&from={from}&size={size}", null,
+                Map.of("text", text, "from", from, "size", size));
+    }
+
+    // the server picks the window when from or to is left out
+    public Mono<ResponseEntity<Object>> getFreeSlots(Long id, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("id", id);
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        if (from != null) {
+            parameters.put("from", from);
+            query.add("from={from}");
+        }
+        if (to != null) {
+            parameters.put("to", to);
+            query.add("to={to}");
+        }
+        return get("/{id}/availability" + query, null, parameters);
+    }
+
+    // the next page's cursor comes back in the server's X-Next-Cursor header
+    public Mono<ResponseEntity<Object>> getComments(Long id, Long size, String cursor) {
+        if (cursor != null) {
+            return get("/{id}/comments?size={size}&cursor={cursor}", null,
+                    Map.of("id", id, "size", size, "cursor", cursor));
+        }
+        return get("/{id}/comments?size={size}", null, Map.of("id", id, "size", size));
     }
 
-    public ResponseEntity<Object> addComment(Long userId, Long itemId, CommentText text) {
-        return post("/{itemId}/comment", userId, Map.of("itemId", itemId), text);
+    public Mono<ResponseEntity<Object>> addComment(Long userId, Long itemId, CommentText text) {
+        return invalidating(EnumSet.of(CacheRegion.ITEMS), post("/{itemId}/comment", userId, Map.of("itemId", itemId), text));
     }
 }
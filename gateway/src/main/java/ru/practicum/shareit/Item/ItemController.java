@@ -2,15 +2,25 @@ package ru.practicum.shareit.Item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.Item.dto.CommentText;
 import ru.practicum.shareit.Item.dto.ItemDto;
 import ru.practicum.shareit.Item.dto.ItemRequestDto;
+import ru.practicum.shareit.exception.BadRequestException;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -21,43 +31,74 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @RequestBody @Valid ItemRequestDto itemDto) {
+    public Mono<ResponseEntity<Object>> addItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestBody @Valid ItemRequestDto itemDto) {
         log.info("Adding item: {}, user: {}", itemDto, userId);
         return itemClient.addItem(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> addItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @RequestBody @NotEmpty @Size(max = 500) List<@Valid ItemRequestDto> items) {
+        log.info("Adding {} items, user: {}", items.size(), userId);
+        return itemClient.addItems(userId, items);
+    }
+
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @PathVariable Long id,
-                                             @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @PathVariable Long id,
+                                                   @RequestBody ItemDto itemDto) {
         log.info("Updating item, id = {}, item = {}, user: {}", id, itemDto, userId);
         return itemClient.updateItem(userId, id, itemDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getItemById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                              @PathVariable Long id) {
+    public Mono<ResponseEntity<Object>> getItemById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @PathVariable Long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Getting item by id = {}, user: {}", id, userId);
-        return itemClient.getItemById(userId, id);
+        return itemClient.getItemById(userId, id, ifNoneMatch);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUserItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> getAllUserItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Getting all user items, user: {}", userId);
         return itemClient.getAllUserItems(userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItemsByName(@RequestParam(required = false, name = "text") String text) {
-        log.info("Searching items by name: {}", text);
-        return itemClient.searchItemsByName(text);
+    public Mono<ResponseEntity<Object>> searchItemsByName(@RequestParam(required = false, name = "text") String text,
+                                                          @PositiveOrZero @RequestParam(name = "from", required = false, defaultValue = "0") Long from,
+                                                          @Positive @RequestParam(name = "size", required = false, defaultValue = "10") Long size) {
+        log.info("Searching items by name: {}, from = {}, size = {}", text, from, size);
+        return itemClient.searchItemsByName(text, from, size);
+    }
+
+    @GetMapping("/{id}/availability")
+    public Mono<ResponseEntity<Object>> getFreeSlots(@PathVariable Long id,
+                                                     @RequestParam(name = "from", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(name = "to", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Getting free slots of item id = {}, from = {}, to = {}", id, from, to);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        return itemClient.getFreeSlots(id, from, to);
+    }
+
+    @GetMapping("/{id}/comments")
+    public Mono<ResponseEntity<Object>> getComments(@PathVariable Long id,
+                                                    @Positive @RequestParam(name = "size", required = false, defaultValue = "10") Long size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Getting comments of item id = {}, size = {}, cursor = {}", id, size, cursor);
+        return itemClient.getComments(id, size, cursor);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @PathVariable Long itemId,
-                                             @RequestBody @Valid CommentText text) {
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @PathVariable Long itemId,
+                                                   @RequestBody @Valid CommentText text) {
         log.info("Adding comment: userId = {}, itemId = {}, text = {}", userId, itemId, text);
         return itemClient.addComment(userId, itemId, text);
     }
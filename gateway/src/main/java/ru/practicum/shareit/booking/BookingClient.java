@@ -1,47 +1,53 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheRegion;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    // an item shows its owner the last and next booking
+    private static final Set<CacheRegion> BOOKING_WRITE = EnumSet.of(CacheRegion.ITEMS);
 
-    @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerTransport transport, ResponseCache cache, MeterRegistry registry) {
+        super(transport, cache, API_PREFIX, registry);
     }
 
-    public ResponseEntity<Object> createBooking(Long userId, BookingCreateDto createDto) {
-        return post("", userId, createDto);
+    public Mono<ResponseEntity<Object>> createBooking(Long userId, BookingCreateDto createDto) {
+        return invalidating(BOOKING_WRITE, post("", userId, createDto));
     }
 
-    public ResponseEntity<Object> setApprove(Long userId, Boolean approved, Long bookingId) {
+    public Mono<ResponseEntity<Object>> setApprove(Long userId, Boolean approved, Long bookingId) {
         Map<String, Object> parameters = Map.of("bookingId", bookingId, "approved", approved);
-        return patch("/{bookingId}?approved={approved}", userId, parameters, null);
+        return invalidating(BOOKING_WRITE, patch("/{bookingId}?approved={approved}", userId, parameters, null));
     }
 
-    public ResponseEntity<Object> getBookingById(Long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBookingById(Long userId, Long bookingId, String ifNoneMatch) {
         Map<String, Object> parameters = Map.of("bookingId", bookingId);
-        return get("/{bookingId}", userId, parameters);
+        return get("/{bookingId}", userId, parameters, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> getAllByUserId(Long userId, BookingState state, Long from, Long size) {
+    public Mono<ResponseEntity<Object>> getAllByUserId(Long userId, BookingState state, Long from, Long size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "cursor", cursor,
+                    "size", size
+            );
+            return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -50,7 +56,15 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllByOwnerId(Long ownerId, Long from, Long size, BookingState state) {
+    public Mono<ResponseEntity<Object>> getAllByOwnerId(Long ownerId, Long from, Long size, BookingState state, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "cursor", cursor,
+                    "size", size
+            );
+            return get("/owner?state={state}&cursor={cursor}&size={size}", ownerId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -1,98 +1,146 @@
 package ru.practicum.shareit.client;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
-import org.springframework.http.HttpEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    // describe the server-to-gateway connection, the servlet container sets its own
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "content-length", "te", "trailer", "upgrade", "proxy-authenticate", "proxy-authorization");
+    static final String METRIC = "shareit.server.requests";
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    private final ServerTransport transport;
+    private final ResponseCache cache;
+    private final String apiPrefix;
+    private final MeterRegistry registry;
+
+    public BaseClient(ServerTransport transport, ResponseCache cache, String apiPrefix, MeterRegistry registry) {
+        this.transport = transport;
+        this.cache = cache;
+        this.apiPrefix = apiPrefix;
+        this.registry = registry;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return get(path, userId, parameters, null);
+    }
+
+    // the client's If-None-Match goes on to the server, which answers 304 without building the body
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                               @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return makeAndSendRequest(HttpMethod.GET, path, headers, parameters, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> cachedGet(CacheRegion region, String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return cachedGet(region, path, userId, parameters, null);
+    }
+
+    // only 200s are cached, so a forwarded 304 is not; a cached 200 carries the server's ETag, and Spring MVC
+    // turns it into 304 itself when the client's If-None-Match matches
+    protected Mono<ResponseEntity<Object>> cachedGet(CacheRegion region, String path, Long userId,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     @Nullable String ifNoneMatch) {
+        CacheKey key = new CacheKey(apiPrefix + path, parameters, userId);
+        return cache.get(region, key, () -> get(path, userId, parameters, ifNoneMatch));
+    }
+
+    protected Mono<ResponseEntity<Object>> invalidating(Set<CacheRegion> regions, Mono<ResponseEntity<Object>> write) {
+        return cache.invalidating(regions, write);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, defaultHeaders(userId), parameters, body);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
-        return prepareGatewayResponse(shareitServerResponse);
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, HttpHeaders headers, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return transport.exchange(method, apiPrefix + path, headers, parameters, body)
+                    .doOnSuccess(response -> sample.stop(timer(method, path, String.valueOf(response.getStatusCodeValue()))))
+                    .doOnError(e -> sample.stop(timer(method, path, e.getClass().getSimpleName())));
+        }).map(BaseClient::prepareGatewayResponse);
+    }
+
+    // paths are templates such as /{id}, so uri stays one tag value per endpoint however many ids pass through;
+    // cache hits never get here and are left out
+    private Timer timer(HttpMethod method, String path, String status) {
+        int query = path.indexOf('?');
+        return Timer.builder(METRIC)
+                .tag("method", method.name())
+                .tag("uri", apiPrefix + (query < 0 ? path : path.substring(0, query)))
+                .tag("status", status)
+                .register(registry);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,12 +153,21 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    // the body stays the server's raw JSON: with the Content-Type copied over, ByteArrayHttpMessageConverter
+    // writes it out as is instead of Jackson parsing it into maps and serializing it again
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        if (response.getStatusCode().isError()) {
+            return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        HttpHeaders headers = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode()).headers(headers);
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.HttpEntityMethodProcessor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// blocking mode: RestTemplateTransport answers on the thread that subscribes, so the Mono a controller returns is
+// resolved right there and written like a plain ResponseEntity. Spring MVC would otherwise start async processing
+// for it and dispatch the request a second time, with nothing gained while the thread is blocked anyway
+@Configuration
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "blocking", matchIfMissing = true)
+public class BlockingResponseConfig {
+
+    // added in front: the built-in handler for reactive types would take the Mono first
+    @Bean
+    public SmartInitializingSingleton blockingResponses(RequestMappingHandlerAdapter adapter) {
+        return () -> {
+            List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(adapter.getReturnValueHandlers());
+            HandlerMethodReturnValueHandler entities = handlers.stream()
+                    .filter(HttpEntityMethodProcessor.class::isInstance)
+                    .findFirst()
+                    .orElseThrow();
+            handlers.add(0, new BlockingResponseHandler(entities));
+            adapter.setReturnValueHandlers(handlers);
+        };
+    }
+
+    static class BlockingResponseHandler implements HandlerMethodReturnValueHandler {
+        private final HandlerMethodReturnValueHandler entities;
+
+        BlockingResponseHandler(HandlerMethodReturnValueHandler entities) {
+            this.entities = entities;
+        }
+
+        @Override
+        public boolean supportsReturnType(MethodParameter returnType) {
+            return Mono.class.isAssignableFrom(returnType.getParameterType());
+        }
+
+        // bodies are the server's raw bytes, so the declared Mono type does not matter for choosing a converter
+        @Override
+        public void handleReturnValue(@Nullable Object returnValue, MethodParameter returnType,
+                                      ModelAndViewContainer mavContainer, NativeWebRequest webRequest)
+                throws Exception {
+            Object response = returnValue != null ? ((Mono<?>) returnValue).block() : null;
+            entities.handleReturnValue(response, returnType, mavContainer, webRequest);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.client;
+
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+public class CacheKey {
+    String path;
+    Map<String, Object> parameters;
+    Long userId;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.client;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// groups of cached GET responses that a write invalidates together
+public enum CacheRegion {
+    USERS,
+    ITEMS,
+    SEARCH,
+    REQUESTS;
+
+    public static final Set<CacheRegion> ALL = EnumSet.allOf(CacheRegion.class);
+}
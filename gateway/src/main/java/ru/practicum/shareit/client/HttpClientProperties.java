@@ -0,0 +1,28 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class HttpClientProperties {
+    // all clients talk to the same server, so one route gets nearly the whole pool
+    private int maxTotal = 200;
+    private int maxPerRoute = 200;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    // how long a request waits for a free pooled connection
+    private Duration poolTimeout = Duration.ofSeconds(2);
+    // used when the server response has no Keep-Alive header
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration idleEviction = Duration.ofSeconds(30);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    // reactive transport only: requests queued for a connection before new ones are rejected
+    private int maxPending = 1000;
+    private DataSize maxResponseSize = DataSize.ofMegabytes(16);
+}
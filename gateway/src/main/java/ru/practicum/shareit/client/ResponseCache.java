@@ -0,0 +1,83 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// successful GET responses per region, dropped whenever this gateway forwards a write touching the region
+@Component
+public class ResponseCache implements MeterBinder {
+    private final boolean enabled;
+    private final Map<CacheRegion, Cache<CacheKey, ResponseEntity<Object>>> caches = new EnumMap<>(CacheRegion.class);
+    // bumped on every invalidation, so a read that overlapped a write does not cache what it got
+    private final Map<CacheRegion, AtomicLong> generations = new EnumMap<>(CacheRegion.class);
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        for (CacheRegion region : CacheRegion.values()) {
+            caches.put(region, Caffeine.newBuilder()
+                    .expireAfterWrite(properties.getTtl())
+                    .maximumSize(properties.getMaxSize())
+                    .recordStats()
+                    .build());
+            generations.put(region, new AtomicLong());
+        }
+    }
+
+    public Mono<ResponseEntity<Object>> get(CacheRegion region,
+                                            CacheKey key,
+                                            Supplier<Mono<ResponseEntity<Object>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Cache<CacheKey, ResponseEntity<Object>> cache = caches.get(region);
+        AtomicLong generation = generations.get(region);
+        return Mono.defer(() -> {
+            ResponseEntity<Object> cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long loadedAt = generation.get();
+            return loader.get().doOnNext(response -> {
+                if (response.getStatusCode().is2xxSuccessful() && generation.get() == loadedAt) {
+                    cache.put(key, response);
+                }
+            });
+        });
+    }
+
+    // before the write is sent and again once it is answered (or has failed: it may still have been applied)
+    public <T> Mono<T> invalidating(Set<CacheRegion> regions, Mono<T> write) {
+        if (!enabled) {
+            return write;
+        }
+        return write
+                .doOnSubscribe(subscription -> invalidate(regions))
+                .doFinally(signal -> invalidate(regions));
+    }
+
+    public void invalidate(Set<CacheRegion> regions) {
+        for (CacheRegion region : regions) {
+            generations.get(region).incrementAndGet();
+            caches.get(region).invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        caches.forEach((region, cache) -> CaffeineCacheMetrics.monitor(registry, cache,
+                "gateway." + region.name().toLowerCase(Locale.ROOT)));
+    }
+}
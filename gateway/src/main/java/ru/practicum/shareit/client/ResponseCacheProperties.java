@@ -0,0 +1,18 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    // bounds what this gateway cannot see: other gateways' writes and bookings moving from next to last over time
+    private Duration ttl = Duration.ofSeconds(10);
+    // entries per region
+    private long maxSize = 10_000;
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.ServerBusyException;
+
+import java.util.Map;
+
+// blocking mode: the call runs on the servlet thread that subscribes, exactly like a plain RestTemplate call
+@Component
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateTransport implements ServerTransport {
+    private final RestTemplate rest;
+
+    @Autowired
+    public RestTemplateTransport(@Value("${shareit-server.url}") String serverUrl,
+                                 RestTemplateBuilder builder,
+                                 ClientHttpRequestFactory requestFactory) {
+        this.rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                .requestFactory(() -> requestFactory)
+                .build();
+    }
+
+    @Override
+    public Mono<ResponseEntity<byte[]>> exchange(HttpMethod method,
+                                                 String path,
+                                                 HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 @Nullable Object body) {
+        return Mono.fromCallable(() -> send(method, path, new HttpEntity<>(body, headers), parameters));
+    }
+
+    private ResponseEntity<byte[]> send(HttpMethod method,
+                                        String path,
+                                        HttpEntity<Object> requestEntity,
+                                        @Nullable Map<String, Object> parameters) {
+        try {
+            if (parameters != null) {
+                return rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            }
+            return rest.exchange(path, method, requestEntity, byte[].class);
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(e.getResponseHeaders())
+                    .body(e.getResponseBodyAsByteArray());
+        } catch (ResourceAccessException e) {
+            if (e.getCause() instanceof ConnectionPoolTimeoutException) {
+                throw new ServerBusyException("No free connection to the server", e);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// sends one request to the server; any status the server answers with, errors included, comes back as a response
+public interface ServerTransport {
+    Mono<ResponseEntity<byte[]>> exchange(HttpMethod method,
+                                          String path,
+                                          HttpHeaders headers,
+                                          @Nullable Map<String, Object> parameters,
+                                          @Nullable Object body);
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquireTimeoutException;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareit.exception.ServerBusyException;
+
+import java.util.Collections;
+import java.util.Map;
+
+// reactive mode: the servlet thread is released while the server works. Concurrency is capped by the connection
+// pool: at most maxTotal requests in flight, maxPending waiting for a connection, the rest rejected with 503
+@Component
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "reactive")
+public class WebClientTransport implements ServerTransport, DisposableBean {
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    @Autowired
+    public WebClientTransport(@Value("${shareit-server.url}") String serverUrl,
+                              WebClient.Builder builder,
+                              HttpClientProperties properties) {
+        this.connectionProvider = ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireMaxCount(properties.getMaxPending())
+                .pendingAcquireTimeout(properties.getPoolTimeout())
+                .maxIdleTime(properties.getKeepAlive())
+                .evictInBackground(properties.getIdleEviction())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+        this.webClient = builder
+                .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl))
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize((int) properties.getMaxResponseSize().toBytes()))
+                .build();
+    }
+
+    @Override
+    public Mono<ResponseEntity<byte[]>> exchange(HttpMethod method,
+                                                 String path,
+                                                 HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Collections.emptyMap())
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        return (body != null ? request.bodyValue(body) : request)
+                .exchangeToMono(response -> response.toEntity(byte[].class))
+                .onErrorMap(WebClientTransport::isPoolExhausted,
+                        e -> new ServerBusyException("Too many requests waiting for the server", e));
+    }
+
+    // WebClient wraps the pool's rejection into a WebClientRequestException. The pool is reactor-netty's shaded
+    // reactor-pool, which has no public counterpart; an upgrade that moves it breaks compilation here
+    private static boolean isPoolExhausted(Throwable e) {
+        Throwable cause = e instanceof WebClientRequestException ? e.getCause() : e;
+        return cause instanceof PoolAcquirePendingLimitException || cause instanceof PoolAcquireTimeoutException;
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class ServerBusyException extends RuntimeException {
+    public ServerBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,44 +1,47 @@
 package ru.practicum.shareit.user;
 
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import ru.practicum.shareit.client.CacheRegion;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.EnumSet;
 import java.util.Map;
 
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+    public UserClient(ServerTransport transport, ResponseCache cache, MeterRegistry registry) {
+        super(transport, cache, API_PREFIX, registry);
     }
 
-    public ResponseEntity<Object> addUser(UserDto userDto) {
-        return post("", null, userDto);
+    public Mono<ResponseEntity<Object>> addUser(UserDto userDto) {
+        return invalidating(EnumSet.of(CacheRegion.USERS), post("", null, userDto));
     }
 
-    public ResponseEntity<Object> updateUser(UserDto userDto, Long id) {
-        return patch("/{id}", null, Map.of("id", id), userDto);
+    public Mono<ResponseEntity<Object>> updateUser(UserDto userDto, Long id) {
+        // the name shows up as comment author in items
+        return invalidating(CacheRegion.ALL, patch("/{id}", null, Map.of("id", id), userDto));
     }
 
-    public ResponseEntity<Object> deleteUser(Long id) {
-        return delete("/{id}", null, Map.of("id", id));
+    public Mono<ResponseEntity<Object>> deleteUser(Long id) {
+        // nothing references a user that can be deleted: the foreign keys refuse to delete an owner, booker,
+        // requester or comment author, so only the user's own entry goes
+        return invalidating(EnumSet.of(CacheRegion.USERS), delete("/{id}", null, Map.of("id", id)));
     }
 
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> getUserById(Long id) {
-        return get("/{id}", null, Map.of("id", id));
+    public Mono<ResponseEntity<Object>> getUserById(Long id, String ifNoneMatch) {
+        return cachedGet(CacheRegion.USERS, "/{id}", null, Map.of("id", id), ifNoneMatch);
     }
 }
\ No newline at end of file
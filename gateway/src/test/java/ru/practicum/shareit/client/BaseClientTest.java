@@ -0,0 +1,114 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaseClientTest {
+    private static final byte[] BODY = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicReference<ResponseEntity<byte[]>> answer = new AtomicReference<>();
+    private final AtomicReference<HttpHeaders> sent = new AtomicReference<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BaseClient client = new BaseClient((method, path, headers, parameters, body) -> {
+        sent.set(headers);
+        return Mono.just(answer.get());
+    }, new ResponseCache(new ResponseCacheProperties()), "/bookings", registry);
+
+    @Test
+    void successKeepsServerHeadersAndRawBody() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setETag("\"b1.0\"");
+        headers.set("X-Next-Cursor", "abc");
+        answer.set(ResponseEntity.ok().headers(headers).body(BODY));
+
+        ResponseEntity<Object> response = client.get("", 1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("\"b1.0\"", response.getHeaders().getETag());
+        assertEquals("abc", response.getHeaders().getFirst("X-Next-Cursor"));
+        // the bytes are passed on, not parsed
+        assertSame(BODY, response.getBody());
+    }
+
+    @Test
+    void hopByHopHeadersAreDropped() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(HttpHeaders.CONNECTION, "keep-alive");
+        headers.set("Keep-Alive", "timeout=60");
+        headers.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        headers.setContentLength(BODY.length);
+        answer.set(ResponseEntity.ok().headers(headers).body(BODY));
+
+        HttpHeaders copied = client.get("", 1L).block().getHeaders();
+
+        assertFalse(copied.containsKey(HttpHeaders.CONNECTION));
+        assertFalse(copied.containsKey("Keep-Alive"));
+        assertFalse(copied.containsKey(HttpHeaders.TRANSFER_ENCODING));
+        assertFalse(copied.containsKey(HttpHeaders.CONTENT_LENGTH));
+        assertTrue(copied.containsKey(HttpHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    void errorKeepsStatusAndBody() {
+        byte[] error = "{\"error\":\"Unknown state: X\"}".getBytes(StandardCharsets.UTF_8);
+        answer.set(ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<Object> response = client.get("", 1L).block();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertArrayEquals(error, (byte[]) response.getBody());
+    }
+
+    @Test
+    void notModifiedHasNoBody() {
+        answer.set(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"b1.0\"").build());
+
+        ResponseEntity<Object> response = client.get("/{id}", 1L, null, "\"b1.0\"").block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"b1.0\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals("\"b1.0\"", sent.get().getIfNoneMatch().get(0));
+    }
+
+    @Test
+    void userIdGoesInHeader() {
+        answer.set(ResponseEntity.ok(BODY));
+
+        client.get("", 7L).block();
+
+        assertEquals("7", sent.get().getFirst("X-Sharer-User-Id"));
+        assertEquals(MediaType.APPLICATION_JSON, sent.get().getContentType());
+    }
+
+    @Test
+    void callsAreTimedPerEndpointAndStatus() {
+        answer.set(ResponseEntity.status(HttpStatus.NOT_FOUND).body(BODY));
+
+        client.get("/{id}?state={state}", 1L).block();
+
+        assertEquals(1, registry.get(BaseClient.METRIC)
+                .tag("method", "GET")
+                .tag("uri", "/bookings/{id}")
+                .tag("status", "404")
+                .timer().count());
+    }
+}
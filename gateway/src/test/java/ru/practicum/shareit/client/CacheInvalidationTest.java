@@ -0,0 +1,117 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.Item.ItemClient;
+import ru.practicum.shareit.Item.dto.CommentText;
+import ru.practicum.shareit.Item.dto.ItemDto;
+import ru.practicum.shareit.Item.dto.ItemRequestDto;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.request.RequestClient;
+import ru.practicum.shareit.request.dto.RequestCreateDto;
+import ru.practicum.shareit.user.UserClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// every cached read is warmed, one write goes through, and the reads that reach the server again are the ones
+// the write invalidated
+class CacheInvalidationTest {
+    private static final String USER = "/users/{id}";
+    private static final String ITEM = "/items/{id}";
+    private static final String SEARCH = "/items/search";
+    private static final String REQUEST = "/requests/{requestId}";
+
+    private final List<String> reads = new ArrayList<>();
+    private final ServerTransport transport = (method, path, headers, parameters, body) -> {
+        if (method == HttpMethod.GET) {
+            int query = path.indexOf('?');
+            reads.add(query < 0 ? path : path.substring(0, query));
+        }
+        return Mono.just(ResponseEntity.ok("{}".getBytes()));
+    };
+    private final ResponseCache cache = new ResponseCache(new ResponseCacheProperties());
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UserClient userClient = new UserClient(transport, cache, registry);
+    private final ItemClient itemClient = new ItemClient(transport, cache, registry);
+    private final BookingClient bookingClient = new BookingClient(transport, cache, registry);
+    private final RequestClient requestClient = new RequestClient(transport, cache, registry);
+
+    @Test
+    void readsAreCached() {
+        assertEquals(Set.of(), reloadedAfter(() -> Mono.empty()));
+    }
+
+    @Test
+    void addUserDropsUsers() {
+        assertEquals(Set.of(USER), reloadedAfter(() -> userClient.addUser(new UserDto(null, "name", "a@b.com"))));
+    }
+
+    @Test
+    void updateUserDropsEverything() {
+        Set<String> all = Set.of(USER, ITEM, SEARCH, REQUEST);
+        assertEquals(all, reloadedAfter(() -> userClient.updateUser(new UserDto(null, "name", null), 1L)));
+    }
+
+    @Test
+    void deleteUserDropsUsers() {
+        assertEquals(Set.of(USER), reloadedAfter(() -> userClient.deleteUser(1L)));
+    }
+
+    @Test
+    void itemWritesDropItemsSearchAndRequests() {
+        Set<String> dropped = Set.of(ITEM, SEARCH, REQUEST);
+        ItemRequestDto item = new ItemRequestDto(null, "drill", "description", true, 1L);
+        assertEquals(dropped, reloadedAfter(() -> itemClient.addItem(1L, item)));
+        assertEquals(dropped, reloadedAfter(() -> itemClient.addItems(1L, List.of(item))));
+        assertEquals(dropped, reloadedAfter(() -> itemClient.updateItem(1L, 1L, new ItemDto())));
+    }
+
+    @Test
+    void commentDropsItems() {
+        assertEquals(Set.of(ITEM), reloadedAfter(() -> itemClient.addComment(2L, 1L, new CommentText("text"))));
+    }
+
+    @Test
+    void bookingWritesDropItems() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        assertEquals(Set.of(ITEM), reloadedAfter(() ->
+                bookingClient.createBooking(2L, new BookingCreateDto(null, start, start.plusDays(1), 1L))));
+        assertEquals(Set.of(ITEM), reloadedAfter(() -> bookingClient.setApprove(1L, true, 1L)));
+    }
+
+    @Test
+    void createRequestDropsRequests() {
+        assertEquals(Set.of(REQUEST), reloadedAfter(() ->
+                requestClient.createRequest(1L, new RequestCreateDto(null, "need a drill", null))));
+    }
+
+    private Set<String> reloadedAfter(WriteCall write) {
+        readAll();
+        write.call().block();
+        reads.clear();
+        readAll();
+        return reads.stream().collect(Collectors.toSet());
+    }
+
+    private void readAll() {
+        userClient.getUserById(1L, null).block();
+        itemClient.getItemById(1L, 1L, null).block();
+        itemClient.searchItemsByName("drill", 0L, 10L).block();
+        requestClient.getRequestById(1L, 1L).block();
+    }
+
+    private interface WriteCall {
+        Mono<ResponseEntity<Object>> call();
+    }
+}
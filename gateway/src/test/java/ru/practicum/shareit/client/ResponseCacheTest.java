@@ -0,0 +1,115 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseCacheTest {
+    private static final CacheKey KEY = new CacheKey("/items/{id}", Map.of("id", 1L), 1L);
+
+    private final ResponseCache cache = new ResponseCache(new ResponseCacheProperties());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void successfulResponseIsServedFromCache() {
+        get(CacheRegion.ITEMS, HttpStatus.OK);
+        get(CacheRegion.ITEMS, HttpStatus.OK);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void notModifiedIsNeverCached() {
+        get(CacheRegion.ITEMS, HttpStatus.NOT_MODIFIED);
+        get(CacheRegion.ITEMS, HttpStatus.NOT_MODIFIED);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void errorIsNeverCached() {
+        get(CacheRegion.ITEMS, HttpStatus.NOT_FOUND);
+        get(CacheRegion.ITEMS, HttpStatus.NOT_FOUND);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void readOverlappingWriteIsNotCached() {
+        // the write lands while the read is on its way: what the read brings back may predate it
+        cache.get(CacheRegion.ITEMS, KEY, () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            cache.invalidate(EnumSet.of(CacheRegion.ITEMS));
+            return ResponseEntity.ok((Object) "stale");
+        })).block();
+        get(CacheRegion.ITEMS, HttpStatus.OK);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void readDuringWriteIsDroppedWhenWriteIsAnswered() {
+        cache.invalidating(EnumSet.of(CacheRegion.ITEMS), Mono.fromSupplier(() -> {
+            // cached while the write is in flight, before the server has applied it
+            get(CacheRegion.ITEMS, HttpStatus.OK);
+            return ResponseEntity.ok().build();
+        })).block();
+        get(CacheRegion.ITEMS, HttpStatus.OK);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failedWriteStillInvalidates() {
+        get(CacheRegion.ITEMS, HttpStatus.OK);
+        Mono<ResponseEntity<Object>> write = cache.invalidating(EnumSet.of(CacheRegion.ITEMS),
+                Mono.error(new IllegalStateException("connection reset")));
+        write.onErrorResume(e -> Mono.empty()).block();
+        get(CacheRegion.ITEMS, HttpStatus.OK);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void writeDropsOnlyItsRegions() {
+        get(CacheRegion.ITEMS, HttpStatus.OK);
+        get(CacheRegion.USERS, HttpStatus.OK);
+
+        cache.invalidating(EnumSet.of(CacheRegion.ITEMS), Mono.just(ResponseEntity.ok().build())).block();
+        get(CacheRegion.ITEMS, HttpStatus.OK);
+        get(CacheRegion.USERS, HttpStatus.OK);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(false);
+        ResponseCache disabled = new ResponseCache(properties);
+
+        disabled.get(CacheRegion.ITEMS, KEY, loader(HttpStatus.OK)).block();
+        disabled.get(CacheRegion.ITEMS, KEY, loader(HttpStatus.OK)).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    private void get(CacheRegion region, HttpStatus status) {
+        cache.get(region, KEY, loader(status)).block();
+    }
+
+    private Supplier<Mono<ResponseEntity<Object>>> loader(HttpStatus status) {
+        return () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return ResponseEntity.status(status).build();
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquireTimeoutException;
+import ru.practicum.shareit.exception.ServerBusyException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// both transports against a loopback stub: whatever the server answers comes back as a response, and a request
+// that finds the pool taken for longer than pool-timeout is turned away with ServerBusyException
+class ServerTransportTest {
+    private final ExecutorService stubThreads = Executors.newFixedThreadPool(2);
+    private HttpServer server;
+    private String serverUrl;
+    private CloseableHttpClient httpClient;
+    private WebClientTransport webClientTransport;
+    private final CountDownLatch slowStarted = new CountDownLatch(1);
+    private final CountDownLatch slowReleased = new CountDownLatch(1);
+    private volatile String receivedQuery;
+    private volatile String receivedUserId;
+    private volatile String receivedBody;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // a second thread, so the stub keeps answering while /slow holds one
+        server.setExecutor(stubThreads);
+        server.createContext("/users", exchange -> {
+            receivedQuery = exchange.getRequestURI().getQuery();
+            receivedUserId = exchange.getRequestHeaders().getFirst("X-Sharer-User-Id");
+            exchange.getResponseHeaders().add("ETag", "\"u1.0\"");
+            respond(exchange, 200, "{\"id\":1}");
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "{\"error\":\"not found\"}"));
+        server.createContext("/slow", exchange -> {
+            slowStarted.countDown();
+            try {
+                slowReleased.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        server.start();
+        serverUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        slowReleased.countDown();
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        if (webClientTransport != null) {
+            webClientTransport.destroy();
+        }
+        server.stop(0);
+        stubThreads.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void relaysSuccess(String mode) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Sharer-User-Id", "7");
+
+        ResponseEntity<byte[]> response = transport(mode, new HttpClientProperties())
+                .exchange(HttpMethod.POST, "/users?from={from}", headers, Map.of("from", 10), Map.of("name", "a"))
+                .block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"u1.0\"", response.getHeaders().getETag());
+        assertArrayEquals(bytes("{\"id\":1}"), response.getBody());
+        assertEquals("from=10", receivedQuery);
+        assertEquals("7", receivedUserId);
+        assertEquals("{\"name\":\"a\"}", receivedBody);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void relaysErrorAsResponse(String mode) {
+        ResponseEntity<byte[]> response = transport(mode, new HttpClientProperties())
+                .exchange(HttpMethod.GET, "/missing", new HttpHeaders(), null, null)
+                .block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(bytes("{\"error\":\"not found\"}"), response.getBody());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void exhaustedPoolIsServerBusy(String mode) throws Exception {
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxTotal(1);
+        properties.setMaxPerRoute(1);
+        properties.setPoolTimeout(Duration.ofMillis(200));
+        ServerTransport transport = transport(mode, properties);
+
+        CompletableFuture<ResponseEntity<byte[]>> slow = CompletableFuture.supplyAsync(() ->
+                transport.exchange(HttpMethod.GET, "/slow", new HttpHeaders(), null, null).block());
+        assertTrue(slowStarted.await(10, TimeUnit.SECONDS));
+
+        Mono<ResponseEntity<byte[]>> second = transport.exchange(HttpMethod.GET, "/users", new HttpHeaders(), null,
+                null);
+        ServerBusyException busy = assertThrows(ServerBusyException.class, second::block);
+        if ("reactive".equals(mode)) {
+            assertInstanceOf(PoolAcquireTimeoutException.class, busy.getCause().getCause());
+        }
+
+        slowReleased.countDown();
+        assertEquals(HttpStatus.OK, slow.get(10, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    // once max-pending requests wait for a connection, the next one is turned away at once, not after pool-timeout
+    @Test
+    void fullPendingQueueIsServerBusy() throws Exception {
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxTotal(1);
+        properties.setMaxPending(1);
+        properties.setPoolTimeout(Duration.ofSeconds(30));
+        ServerTransport transport = transport("reactive", properties);
+
+        CompletableFuture<ResponseEntity<byte[]>> slow = CompletableFuture.supplyAsync(() ->
+                transport.exchange(HttpMethod.GET, "/slow", new HttpHeaders(), null, null).block());
+        assertTrue(slowStarted.await(10, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<byte[]>> waiting = transport.exchange(HttpMethod.GET, "/users",
+                new HttpHeaders(), null, null).toFuture();
+
+        Mono<ResponseEntity<byte[]>> third = transport.exchange(HttpMethod.GET, "/users", new HttpHeaders(), null,
+                null);
+        ServerBusyException busy = assertThrows(ServerBusyException.class, () -> third.block(Duration.ofSeconds(5)));
+        assertInstanceOf(PoolAcquirePendingLimitException.class, busy.getCause().getCause());
+
+        slowReleased.countDown();
+        assertEquals(HttpStatus.OK, slow.get(10, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(HttpStatus.OK, waiting.get(10, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    private ServerTransport transport(String mode, HttpClientProperties properties) {
+        if ("reactive".equals(mode)) {
+            webClientTransport = new WebClientTransport(serverUrl, WebClient.builder(), properties);
+            return webClientTransport;
+        }
+        HttpClientConfig config = new HttpClientConfig();
+        httpClient = config.httpClient(config.connectionManager(properties), properties);
+        return new RestTemplateTransport(serverUrl, new RestTemplateBuilder(),
+                config.clientHttpRequestFactory(httpClient));
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String received = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            if (!received.isEmpty()) {
+                receivedBody = received;
+            }
+        }
+        byte[] bytes = bytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BlockingResponseConfig;
+import ru.practicum.shareit.exception.ServerBusyException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// default blocking transport: the server's answer is written on the servlet thread, no async dispatch
+@WebMvcTest(controllers = UserController.class)
+@Import(BlockingResponseConfig.class)
+class UserControllerTest {
+    private static final byte[] USER = "{\"id\":1,\"name\":\"a\",\"email\":\"a@b.com\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserClient userClient;
+
+    @Test
+    void getUserIsAnsweredSynchronously() throws Exception {
+        when(userClient.getUserById(1L, null)).thenReturn(Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag("\"u1.0\"")
+                .body(USER)));
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"u1.0\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(USER));
+    }
+
+    @Test
+    void matchingEtagIsNotModified() throws Exception {
+        when(userClient.getUserById(1L, "\"u1.0\"")).thenReturn(Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag("\"u1.0\"")
+                .body(USER)));
+
+        mockMvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"u1.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void serverErrorIsRelayed() throws Exception {
+        byte[] error = "{\"errors\":{\"errorMessage\":\"not found\"}}".getBytes(StandardCharsets.UTF_8);
+        when(userClient.getUserById(9L, null)).thenReturn(Mono.just(ResponseEntity.status(404).body(error)));
+
+        mockMvc.perform(get("/users/9"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().bytes(error));
+    }
+
+    @Test
+    void busyServerIsServiceUnavailable() throws Exception {
+        when(userClient.getUserById(1L, null))
+                .thenReturn(Mono.error(new ServerBusyException("No free connection to the server", null)));
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errors.errorMessage").value("No free connection to the server"));
+    }
+
+    @Test
+    void invalidUserIsNotForwarded() throws Exception {
+        mockMvc.perform(post("/users")
+                        .content("{\"name\":\"a\",\"email\":\"not an email\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userClient);
+    }
+
+    @Test
+    void addUserReturnsServerAnswer() throws Exception {
+        when(userClient.addUser(any())).thenReturn(Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(USER)));
+
+        mockMvc.perform(post("/users")
+                        .content("{\"name\":\"a\",\"email\":\"a@b.com\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+}
@@ -2,8 +2,11 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.util.Constants;
@@ -34,27 +37,52 @@ public class BookingController {
     }
 
     @GetMapping("{bookingId}")
-    public BookingDto getBookingById(@RequestHeader(Constants.USER_HEADER_ID) Long userId, @PathVariable Long bookingId) {
+    public BookingDto getBookingById(@RequestHeader(Constants.USER_HEADER_ID) Long userId, @PathVariable Long bookingId,
+                                     WebRequest request) {
         log.info("Запрос на получение бронирования: userId = {}, bookingId = {}", userId, bookingId);
+        // a matching If-None-Match ends here with 304, before the booking is loaded and mapped
+        if (request.checkNotModified(bookingService.getBookingTag(userId, bookingId))) {
+            return null;
+        }
         return bookingService.getById(userId, bookingId);
     }
 
     @GetMapping
-    public List<BookingDto> getAllByUserId(@RequestHeader(Constants.USER_HEADER_ID) Long userId,
-                                           @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                           @RequestParam(name = "from", defaultValue = "0") Long from,
-                                           @RequestParam(name = "size", defaultValue = "10") Long size) {
-        log.info("Получение списка бронирований для пользователя userId = {}, state = {}, from = {}, size = {} ", userId, state, from, size);
-        return bookingService.getAllByUserId(userId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getAllByUserId(@RequestHeader(Constants.USER_HEADER_ID) Long userId,
+                                                           @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                           @RequestParam(name = "from", defaultValue = "0") Long from,
+                                                           @RequestParam(name = "size", defaultValue = "10") Long size,
+                                                           @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Получение списка бронирований для пользователя userId = {}, state = {}, from = {}, size = {}, cursor = {} ",
+                userId, state, from, size, cursor);
+        List<BookingDto> bookings = cursor == null
+                ? bookingService.getAllByUserId(userId, state, from, size)
+                : bookingService.getAllByUserIdAfter(userId, state, cursor, size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("owner")
-    public List<BookingDto> getAllByOwnerId(@RequestHeader(Constants.USER_HEADER_ID) Long ownerId,
-                                            @RequestParam(name = "from", defaultValue = "0") Long from,
-                                            @RequestParam(name = "size", defaultValue = "10") Long size,
-                                            @RequestParam(name = "state", defaultValue = "ALL") String state) {
-        log.info("Получение списка бронирований для владельца ownerId = {}, state = {}, from = {}, size = {} ", ownerId, state, from, size);
-        return bookingService.getAllByOwnerId(ownerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getAllByOwnerId(@RequestHeader(Constants.USER_HEADER_ID) Long ownerId,
+                                                            @RequestParam(name = "from", defaultValue = "0") Long from,
+                                                            @RequestParam(name = "size", defaultValue = "10") Long size,
+                                                            @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                            @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Получение списка бронирований для владельца ownerId = {}, state = {}, from = {}, size = {}, cursor = {} ",
+                ownerId, state, from, size, cursor);
+        List<BookingDto> bookings = cursor == null
+                ? bookingService.getAllByOwnerId(ownerId, state, from, size)
+                : bookingService.getAllByOwnerIdAfter(ownerId, state, cursor, size);
+        return withNextCursor(bookings, size);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, Long size) {
+        if (bookings.isEmpty() || bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingDto last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(Constants.NEXT_CURSOR_HEADER, BookingCursor.after(last).encode())
+                .body(bookings);
     }
 
 }
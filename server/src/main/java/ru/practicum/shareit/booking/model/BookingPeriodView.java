@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+public interface BookingPeriodView {
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
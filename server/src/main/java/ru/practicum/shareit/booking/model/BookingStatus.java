@@ -1,8 +1,13 @@
 package ru.practicum.shareit.booking.model;
 
+import java.util.List;
+
 public enum BookingStatus {
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELED
+    CANCELED;
+
+    // bookings that keep the item from being booked by someone else for their period
+    public static final List<BookingStatus> HOLDING = List.of(WAITING, APPROVED);
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.model;
+
+public interface BookingVersionView {
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+}
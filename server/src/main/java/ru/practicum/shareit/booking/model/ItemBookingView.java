@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.model;
+
+public interface ItemBookingView {
+
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+}
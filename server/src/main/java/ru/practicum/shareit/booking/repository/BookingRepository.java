@@ -1,32 +1,187 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriodView;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersionView;
 import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    // everything a booking's ETag depends on, without loading the booking itself
+    @Query("select b.booker.id as bookerId, i.owner.id as ownerId, b.version as version, " +
+            "i.version as itemVersion, b.booker.version as bookerVersion " +
+            "from Booking b join b.item i where b.id = :id")
+    Optional<BookingVersionView> findVersionById(@Param("id") Long id);
 
-    List<Booking> findBookingByBookerIdOrderByStartDesc(Long id, Pageable pageable);
+    // listings map item and booker of every row, so both come with the page instead of a select per row. Ties on
+    // start are broken by id, the same order the seek queries below continue in, so an offset page's cursor
+    // neither skips nor repeats bookings
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByBookerIdOrderByStartDescIdDesc(Long id, Pageable pageable);
 
-    List<Booking> findBookingByBookerIdAndStartAfterOrderByStartDesc(Long id, LocalDateTime now, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(Long id,
+                                                                           LocalDateTime now,
+                                                                           Pageable pageable);
 
-    List<Booking> findBookingByBookerIdAndStatusOrderByStartDesc(Long id, BookingStatus status, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByBookerIdAndStatusOrderByStartDescIdDesc(Long id,
+                                                                       BookingStatus status,
+                                                                       Pageable pageable);
 
-    List<Booking> findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(Long id,
-                                                                                     LocalDateTime start,
-                                                                                     LocalDateTime end, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(Long id,
+                                                                                           LocalDateTime start,
+                                                                                           LocalDateTime end,
+                                                                                           Pageable pageable);
 
-    List<Booking> findBookingByBookerIdAndEndBeforeOrderByStartDesc(Long id, LocalDateTime now, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByBookerIdAndEndBeforeOrderByStartDescIdDesc(Long id,
+                                                                          LocalDateTime now,
+                                                                          Pageable pageable);
 
-    List<Booking> findBookingByItemIdAndBookerIdAndStatusNotInAndEndBefore(Long itemId,
-                                                                           Long userId,
-                                                                           List<BookingStatus> statuses,
-                                                                           LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByItemOwnerIdOrderByStartDescIdDesc(Long ownerId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Long ownerId,
+                                                                              LocalDateTime now,
+                                                                              Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(Long ownerId,
+                                                                          BookingStatus status,
+                                                                          Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(Long ownerId,
+                                                                                              LocalDateTime start,
+                                                                                              LocalDateTime end,
+                                                                                              Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookingByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(Long ownerId,
+                                                                             LocalDateTime now,
+                                                                             Pageable pageable);
+
+    @Query("select b from Booking b where b.booker.id = :bookerId " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekByBooker(@Param("bookerId") Long bookerId,
+                               @Param("start") LocalDateTime start,
+                               @Param("id") Long id,
+                               Pageable pageable);
+
+    @Query("select b from Booking b where b.booker.id = :bookerId and b.status = :status " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekByBookerAndStatus(@Param("bookerId") Long bookerId,
+                                        @Param("status") BookingStatus status,
+                                        @Param("start") LocalDateTime start,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    @Query("select b from Booking b where b.booker.id = :bookerId and b.start > :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekFutureByBooker(@Param("bookerId") Long bookerId,
+                                     @Param("now") LocalDateTime now,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("select b from Booking b where b.booker.id = :bookerId and b.start < :now and b.end > :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekCurrentByBooker(@Param("bookerId") Long bookerId,
+                                      @Param("now") LocalDateTime now,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query("select b from Booking b where b.booker.id = :bookerId and b.end < :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekPastByBooker(@Param("bookerId") Long bookerId,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("start") LocalDateTime start,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner.id = :ownerId " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekByOwner(@Param("ownerId") Long ownerId,
+                              @Param("start") LocalDateTime start,
+                              @Param("id") Long id,
+                              Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner.id = :ownerId and b.status = :status " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekByOwnerAndStatus(@Param("ownerId") Long ownerId,
+                                       @Param("status") BookingStatus status,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner.id = :ownerId and b.start > :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekFutureByOwner(@Param("ownerId") Long ownerId,
+                                    @Param("now") LocalDateTime now,
+                                    @Param("start") LocalDateTime start,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner.id = :ownerId and b.start < :now and b.end > :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekCurrentByOwner(@Param("ownerId") Long ownerId,
+                                     @Param("now") LocalDateTime now,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner.id = :ownerId and b.end < :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> seekPastByOwner(@Param("ownerId") Long ownerId,
+                                  @Param("now") LocalDateTime now,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("id") Long id,
+                                  Pageable pageable);
+
+
+    // finished bookings of the item by the user, ids only; a derived exists query would join items and users
+    // just to compare their ids, this one reads the bookings row alone and stops at the page size
+    @Query("select b.id from Booking b where b.item.id = :itemId and b.booker.id = :userId " +
+            "and b.status not in :statuses and b.end < :now")
+    List<Long> findFinishedBookingIds(@Param("itemId") Long itemId,
+                                      @Param("userId") Long userId,
+                                      @Param("statuses") List<BookingStatus> statuses,
+                                      @Param("now") LocalDateTime now,
+                                      Pageable pageable);
 
     List<BookingView> findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(Long itemId,
                                                                              LocalDateTime now,
@@ -41,4 +196,46 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                                                                             LocalDateTime now1,
                                                                                             List<BookingStatus> statuses);
 
+    // overlap of [start, end) periods; the seek on idx_bookings_item_status_end (end_date > :start) skips
+    // every booking of the item that is already over, so only running and future ones are looked at
+    boolean existsByItemIdAndStatusInAndEndAfterAndStartBefore(Long itemId,
+                                                               List<BookingStatus> statuses,
+                                                               LocalDateTime start,
+                                                               LocalDateTime end);
+
+    boolean existsByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(Long itemId,
+                                                                      Long id,
+                                                                      BookingStatus status,
+                                                                      LocalDateTime start,
+                                                                      LocalDateTime end);
+
+    List<Booking> findByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(Long itemId,
+                                                                         Long id,
+                                                                         BookingStatus status,
+                                                                         LocalDateTime start,
+                                                                         LocalDateTime end);
+
+    List<BookingPeriodView> findByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStart(Long itemId,
+                                                                                         List<BookingStatus> statuses,
+                                                                                         LocalDateTime from,
+                                                                                         LocalDateTime to);
+
+    @Query(value = "SELECT t.item_id AS itemId, t.id AS id, t.booker_id AS bookerId FROM (" +
+            "SELECT b.item_id, b.id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) AND b.start_date < :now AND b.status = 'APPROVED') t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastBookingsByItemIdIn(@Param("itemIds") List<Long> itemIds,
+                                                     @Param("now") LocalDateTime now); // last or current
+
+    @Query(value = "SELECT t.item_id AS itemId, t.id AS id, t.booker_id AS bookerId FROM (" +
+            "SELECT b.item_id, b.id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) AND b.start_date > :now AND b.status = 'APPROVED') t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findNextBookingsByItemIdIn(@Param("itemIds") List<Long> itemIds,
+                                                     @Param("now") LocalDateTime now); // next
+
 }
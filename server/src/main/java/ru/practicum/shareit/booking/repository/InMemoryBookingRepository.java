@@ -0,0 +1,479 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriodView;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersionView;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemVersionView;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.UserView;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.InMemoryJpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// the BookingRepository of the memory profile. Bookings of a booker and of an item are indexed by id; an owner's
+// bookings are those of the owner's items. Rows keep the ids of item and booker and bookings are read with both
+// as their stores have them now, like the entity graph of the listings
+@Repository
+@Profile("memory")
+public class InMemoryBookingRepository extends InMemoryJpaRepository<Booking> implements BookingRepository {
+    // the order of every listing and seek query: start desc, id desc
+    private static final Comparator<Row> NEWEST_FIRST = Comparator.comparing(Row::getStart)
+            .thenComparing(Row::getId)
+            .reversed();
+
+    private final Map<Long, Row> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> bookingsByBooker = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> bookingsByItem = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    public InMemoryBookingRepository(ItemRepository itemRepository, UserRepository userRepository) {
+        super(Booking.class, Booking::getId);
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public <S extends Booking> S save(S booking) {
+        if (booking.getId() == null) {
+            booking.setId(idGenerator.getAndIncrement());
+            Row row = new Row(booking, booking.getVersion());
+            bookings.put(row.getId(), row);
+            index(bookingsByBooker, row.getBookerId(), row.getId());
+            index(bookingsByItem, row.getItemId(), row.getId());
+            return booking;
+        }
+        bookings.compute(booking.getId(), (id, row) -> {
+            checkVersion(id, row == null ? null : row.getVersion(), booking.getVersion());
+            Row saved = new Row(booking, booking.getVersion() + 1);
+            if (!saved.getBookerId().equals(row.getBookerId())) {
+                unindex(bookingsByBooker, row.getBookerId(), id);
+                index(bookingsByBooker, saved.getBookerId(), id);
+            }
+            if (!saved.getItemId().equals(row.getItemId())) {
+                unindex(bookingsByItem, row.getItemId(), id);
+                index(bookingsByItem, saved.getItemId(), id);
+            }
+            return saved;
+        });
+        booking.setVersion(booking.getVersion() + 1);
+        return booking;
+    }
+
+    @Override
+    public Optional<Booking> findById(Long id) {
+        return Optional.ofNullable(bookings.get(id)).map(this::toBooking);
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        return bookings.values().stream()
+                .sorted(Comparator.comparing(Row::getId))
+                .map(this::toBooking)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return bookings.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return bookings.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        Row row = bookings.remove(id);
+        if (row != null) {
+            unindex(bookingsByBooker, row.getBookerId(), id);
+            unindex(bookingsByItem, row.getItemId(), id);
+        }
+    }
+
+    @Override
+    public Optional<BookingVersionView> findVersionById(Long id) {
+        Row row = bookings.get(id);
+        if (row == null) {
+            return Optional.empty();
+        }
+        ItemVersionView item = itemRepository.findVersionById(row.getItemId()).orElseThrow();
+        Long bookerVersion = userRepository.findVersionById(row.getBookerId()).orElseThrow();
+        return Optional.of(new BookingVersion(row.getBookerId(), item.getOwnerId(), row.getVersion(),
+                item.getVersion(), bookerVersion));
+    }
+
+    @Override
+    public List<Booking> findBookingByBookerIdOrderByStartDescIdDesc(Long id, Pageable pageable) {
+        return listing(ofBooker(id), row -> true, pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(Long id,
+                                                                                  LocalDateTime now,
+                                                                                  Pageable pageable) {
+        return listing(ofBooker(id), future(now), pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByBookerIdAndStatusOrderByStartDescIdDesc(Long id,
+                                                                              BookingStatus status,
+                                                                              Pageable pageable) {
+        return listing(ofBooker(id), row -> row.getStatus() == status, pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(Long id,
+                                                                                                  LocalDateTime start,
+                                                                                                  LocalDateTime end,
+                                                                                                  Pageable pageable) {
+        return listing(ofBooker(id), current(start, end), pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByBookerIdAndEndBeforeOrderByStartDescIdDesc(Long id,
+                                                                                 LocalDateTime now,
+                                                                                 Pageable pageable) {
+        return listing(ofBooker(id), past(now), pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByItemOwnerIdOrderByStartDescIdDesc(Long ownerId, Pageable pageable) {
+        return listing(ofOwner(ownerId), row -> true, pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Long ownerId,
+                                                                                     LocalDateTime now,
+                                                                                     Pageable pageable) {
+        return listing(ofOwner(ownerId), future(now), pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(Long ownerId,
+                                                                                 BookingStatus status,
+                                                                                 Pageable pageable) {
+        return listing(ofOwner(ownerId), row -> row.getStatus() == status, pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(Long ownerId,
+                                                                                                     LocalDateTime start,
+                                                                                                     LocalDateTime end,
+                                                                                                     Pageable pageable) {
+        return listing(ofOwner(ownerId), current(start, end), pageable);
+    }
+
+    @Override
+    public List<Booking> findBookingByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(Long ownerId,
+                                                                                    LocalDateTime now,
+                                                                                    Pageable pageable) {
+        return listing(ofOwner(ownerId), past(now), pageable);
+    }
+
+    @Override
+    public List<Booking> seekByBooker(Long bookerId, LocalDateTime start, Long id, Pageable pageable) {
+        return listing(ofBooker(bookerId), after(start, id), pageable);
+    }
+
+    @Override
+    public List<Booking> seekByBookerAndStatus(Long bookerId, BookingStatus status, LocalDateTime start, Long id,
+                                               Pageable pageable) {
+        return listing(ofBooker(bookerId), after(start, id).and(row -> row.getStatus() == status), pageable);
+    }
+
+    @Override
+    public List<Booking> seekFutureByBooker(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                            Pageable pageable) {
+        return listing(ofBooker(bookerId), after(start, id).and(future(now)), pageable);
+    }
+
+    @Override
+    public List<Booking> seekCurrentByBooker(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                             Pageable pageable) {
+        return listing(ofBooker(bookerId), after(start, id).and(current(now, now)), pageable);
+    }
+
+    @Override
+    public List<Booking> seekPastByBooker(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                          Pageable pageable) {
+        return listing(ofBooker(bookerId), after(start, id).and(past(now)), pageable);
+    }
+
+    @Override
+    public List<Booking> seekByOwner(Long ownerId, LocalDateTime start, Long id, Pageable pageable) {
+        return listing(ofOwner(ownerId), after(start, id), pageable);
+    }
+
+    @Override
+    public List<Booking> seekByOwnerAndStatus(Long ownerId, BookingStatus status, LocalDateTime start, Long id,
+                                              Pageable pageable) {
+        return listing(ofOwner(ownerId), after(start, id).and(row -> row.getStatus() == status), pageable);
+    }
+
+    @Override
+    public List<Booking> seekFutureByOwner(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                           Pageable pageable) {
+        return listing(ofOwner(ownerId), after(start, id).and(future(now)), pageable);
+    }
+
+    @Override
+    public List<Booking> seekCurrentByOwner(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                            Pageable pageable) {
+        return listing(ofOwner(ownerId), after(start, id).and(current(now, now)), pageable);
+    }
+
+    @Override
+    public List<Booking> seekPastByOwner(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                         Pageable pageable) {
+        return listing(ofOwner(ownerId), after(start, id).and(past(now)), pageable);
+    }
+
+    @Override
+    public List<Long> findFinishedBookingIds(Long itemId, Long userId, List<BookingStatus> statuses,
+                                             LocalDateTime now, Pageable pageable) {
+        return page(ofItem(itemId)
+                .filter(row -> row.getBookerId().equals(userId) && !statuses.contains(row.getStatus()))
+                .filter(past(now))
+                .map(Row::getId)
+                .sorted(), pageable);
+    }
+
+    @Override
+    public List<BookingView> findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(Long itemId,
+                                                                                    LocalDateTime now,
+                                                                                    List<BookingStatus> statuses) {
+        return views(ofItem(itemId)
+                .filter(row -> !statuses.contains(row.getStatus()))
+                .filter(past(now))
+                .sorted(Comparator.comparing(Row::getEnd).reversed()));
+    }
+
+    @Override
+    public List<BookingView> findByItemIdAndStartIsAfterAndStatusNotInOrderByStart(Long itemId,
+                                                                                   LocalDateTime now,
+                                                                                   List<BookingStatus> statuses) {
+        return views(ofItem(itemId)
+                .filter(row -> !statuses.contains(row.getStatus()))
+                .filter(future(now))
+                .sorted(Comparator.comparing(Row::getStart)));
+    }
+
+    @Override
+    public List<BookingView> findByItemIdAndStartIsBeforeAndEndIsAfterAndStatusNotInOrderByEndDesc(
+            Long itemId, LocalDateTime now, LocalDateTime now1, List<BookingStatus> statuses) {
+        return views(ofItem(itemId)
+                .filter(row -> !statuses.contains(row.getStatus()))
+                .filter(current(now, now1))
+                .sorted(Comparator.comparing(Row::getEnd).reversed()));
+    }
+
+    @Override
+    public boolean existsByItemIdAndStatusInAndEndAfterAndStartBefore(Long itemId, List<BookingStatus> statuses,
+                                                                      LocalDateTime start, LocalDateTime end) {
+        return ofItem(itemId)
+                .filter(row -> statuses.contains(row.getStatus()))
+                .anyMatch(overlaps(start, end));
+    }
+
+    @Override
+    public boolean existsByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(Long itemId, Long id,
+                                                                             BookingStatus status,
+                                                                             LocalDateTime start,
+                                                                             LocalDateTime end) {
+        return ofItem(itemId)
+                .filter(row -> !row.getId().equals(id) && row.getStatus() == status)
+                .anyMatch(overlaps(start, end));
+    }
+
+    @Override
+    public List<Booking> findByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(Long itemId, Long id,
+                                                                                BookingStatus status,
+                                                                                LocalDateTime start,
+                                                                                LocalDateTime end) {
+        return ofItem(itemId)
+                .filter(row -> !row.getId().equals(id) && row.getStatus() == status)
+                .filter(overlaps(start, end))
+                .sorted(Comparator.comparing(Row::getId))
+                .map(this::toBooking)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BookingPeriodView> findByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStart(
+            Long itemId, List<BookingStatus> statuses, LocalDateTime from, LocalDateTime to) {
+        return ofItem(itemId)
+                .filter(row -> statuses.contains(row.getStatus()))
+                .filter(overlaps(from, to))
+                .sorted(Comparator.comparing(Row::getStart))
+                .map(row -> new Period(row.getStart(), row.getEnd()))
+                .collect(Collectors.toList());
+    }
+
+    // the approved booking of each item that ends last among those already started
+    @Override
+    public List<ItemBookingView> findLastBookingsByItemIdIn(List<Long> itemIds, LocalDateTime now) {
+        return firstOfEachItem(itemIds, row -> row.getStart().isBefore(now),
+                Comparator.comparing(Row::getEnd).reversed());
+    }
+
+    // the approved booking of each item that starts first among those not started yet
+    @Override
+    public List<ItemBookingView> findNextBookingsByItemIdIn(List<Long> itemIds, LocalDateTime now) {
+        return firstOfEachItem(itemIds, future(now), Comparator.comparing(Row::getStart));
+    }
+
+    public boolean hasBooker(Long userId) {
+        return bookingsByBooker.containsKey(userId);
+    }
+
+    private Stream<Row> ofBooker(Long bookerId) {
+        return rows(bookingsByBooker, List.of(bookerId));
+    }
+
+    private Stream<Row> ofOwner(Long ownerId) {
+        return rows(bookingsByItem, itemRepository.findItemsByOwnerIdOrderById(ownerId).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private Stream<Row> ofItem(Long itemId) {
+        return rows(bookingsByItem, List.of(itemId));
+    }
+
+    private Stream<Row> rows(Map<Long, Set<Long>> index, List<Long> keys) {
+        return ids(index, keys)
+                .map(bookings::get)
+                .filter(Objects::nonNull);
+    }
+
+    private List<Booking> listing(Stream<Row> rows, Predicate<Row> filter, Pageable pageable) {
+        return page(rows.filter(filter).sorted(NEWEST_FIRST), pageable).stream()
+                .map(this::toBooking)
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemBookingView> firstOfEachItem(List<Long> itemIds, Predicate<Row> filter, Comparator<Row> order) {
+        return itemIds.stream()
+                .distinct()
+                .map(itemId -> ofItem(itemId)
+                        .filter(row -> row.getStatus() == BookingStatus.APPROVED)
+                        .filter(filter)
+                        .min(order))
+                .flatMap(Optional::stream)
+                .map(row -> new ItemBooking(row.getItemId(), row.getId(), row.getBookerId()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<BookingView> views(Stream<Row> rows) {
+        return rows.map(row -> new BookingRef(row.getId(), new Booker(row.getBookerId())))
+                .collect(Collectors.toList());
+    }
+
+    // continues a listing after the booking the cursor points at
+    private static Predicate<Row> after(LocalDateTime start, Long id) {
+        return row -> row.getStart().isBefore(start) || row.getStart().isEqual(start) && row.getId() < id;
+    }
+
+    private static Predicate<Row> future(LocalDateTime now) {
+        return row -> row.getStart().isAfter(now);
+    }
+
+    private static Predicate<Row> current(LocalDateTime start, LocalDateTime end) {
+        return row -> row.getStart().isBefore(start) && row.getEnd().isAfter(end);
+    }
+
+    private static Predicate<Row> past(LocalDateTime now) {
+        return row -> row.getEnd().isBefore(now);
+    }
+
+    // [start, end) periods: ends after the other starts and starts before the other ends
+    private static Predicate<Row> overlaps(LocalDateTime start, LocalDateTime end) {
+        return row -> row.getEnd().isAfter(start) && row.getStart().isBefore(end);
+    }
+
+    private Booking toBooking(Row row) {
+        Booking booking = new Booking(row.getId(), row.getStart(), row.getEnd(),
+                itemRepository.findById(row.getItemId()).orElse(null),
+                userRepository.findById(row.getBookerId()).orElse(null),
+                row.getStatus());
+        booking.setVersion(row.getVersion());
+        return booking;
+    }
+
+    @Value
+    private static class Row {
+        Long id;
+        LocalDateTime start;
+        LocalDateTime end;
+        Long itemId;
+        Long bookerId;
+        BookingStatus status;
+        long version;
+
+        Row(Booking booking, long version) {
+            this.id = booking.getId();
+            this.start = booking.getStart();
+            this.end = booking.getEnd();
+            this.itemId = booking.getItem().getId();
+            this.bookerId = booking.getBooker().getId();
+            this.status = booking.getStatus();
+            this.version = version;
+        }
+    }
+
+    @Value
+    private static class BookingVersion implements BookingVersionView {
+        Long bookerId;
+        Long ownerId;
+        Long version;
+        Long itemVersion;
+        Long bookerVersion;
+    }
+
+    @Value
+    private static class ItemBooking implements ItemBookingView {
+        Long itemId;
+        Long id;
+        Long bookerId;
+    }
+
+    @Value
+    private static class BookingRef implements BookingView {
+        Long id;
+        UserView booker;
+    }
+
+    @Value
+    private static class Booker implements UserView {
+        Long id;
+    }
+
+    @Value
+    private static class Period implements BookingPeriodView {
+        LocalDateTime start;
+        LocalDateTime end;
+    }
+}
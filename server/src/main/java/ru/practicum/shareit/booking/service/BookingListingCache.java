@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// pages of CURRENT, PAST and FUTURE listings, sorted against the start of the second they were asked in; the same
+// page asked for again within that second is served from here. A booking written through this service starts a new
+// generation once committed, so its own changes show at once; changes made elsewhere (another instance, an item
+// renamed) show from the next second. The lists are shared, callers must not change them.
+// shareit.booking.listing-cache=false loads every page, e.g. to benchmark the queries themselves
+@Component
+public class BookingListingCache {
+    @Value("${shareit.booking.listing-cache:true}")
+    private boolean enabled = true;
+    private final Cache<Key, List<BookingDto>> pages = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(2))
+            .maximumSize(10_000)
+            .build();
+    private final AtomicLong generation = new AtomicLong();
+
+    public static LocalDateTime bucket(LocalDateTime now) {
+        return now.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    public List<BookingDto> get(String listing, Long userId, String state, Object page, LocalDateTime bucket,
+                                Supplier<List<BookingDto>> load) {
+        if (!enabled) {
+            return load.get();
+        }
+        Key key = new Key(listing, userId, state, page, bucket, generation.get());
+        List<BookingDto> bookings = pages.getIfPresent(key);
+        if (bookings == null) {
+            bookings = load.get();
+            pages.put(key, bookings);
+        }
+        return bookings;
+    }
+
+    public void bookingsChanged() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generation.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                generation.incrementAndGet();
+            }
+        });
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class Key {
+        private final String listing;
+        private final Long userId;
+        private final String state;
+        private final Object page;
+        private final LocalDateTime bucket;
+        private final long generation;
+    }
+}
@@ -12,8 +12,14 @@ public interface BookingService {
 
     BookingDto getById(Long userId, Long bookingId);
 
+    String getBookingTag(Long userId, Long bookingId);
+
     List<BookingDto> getAllByUserId(Long userId, String state, Long from, Long size);
 
     List<BookingDto> getAllByOwnerId(Long userId, String state, Long from, Long size);
+
+    List<BookingDto> getAllByUserIdAfter(Long userId, String state, String cursor, Long size);
+
+    List<BookingDto> getAllByOwnerIdAfter(Long ownerId, String state, String cursor, Long size);
 }
 
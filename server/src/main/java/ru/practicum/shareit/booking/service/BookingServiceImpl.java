@@ -4,11 +4,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersionView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -16,40 +19,62 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
+import ru.practicum.shareit.util.RequestTime;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final String BY_BOOKER = "booker";
+    private static final String BY_OWNER = "owner";
+
     private final BookingRepository bookingRepository;
     private final BookingMapper mapper;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final RequestTime requestTime;
+    private final BookingListingCache listingCache;
 
+    // the overlap check and the insert commit together; requests for one item wait for each other on the item row,
+    // so two overlapping requests cannot both pass the check
     @Override
+    @Transactional
     public BookingDto addBooking(BookingCreateDto createDto, Long userId) {
-        Long itemId = createDto.getItemId();
-        if (!checkItemAvailable(itemId)) {
+        final Item item = getItem(createDto.getItemId());
+        if (!item.getAvailable()) {
             throw new BadRequestException("Предмет не доступен для бронирования");
         }
-        final Booking booking = create(itemId, userId, createDto);
+        final Booking booking = create(item, userId, createDto);
         if (userId.equals(booking.getItem().getOwner().getId())) {
             throw new NotFoundException("Владелец вещи не может ее бронировать)");
         }
-        return mapper.toDto(bookingRepository.save(booking));
+        itemRepository.findLockedById(item.getId()).orElseThrow(() -> new NotFoundException("Item not found"));
+        if (bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(item.getId(), BookingStatus.HOLDING,
+                booking.getStart(), booking.getEnd())) {
+            throw new BadRequestException("Вещь уже забронирована на это время");
+        }
+        BookingDto saved = mapper.toDto(bookingRepository.save(booking));
+        listingCache.bookingsChanged();
+        return saved;
     }
 
+    // one transaction: the overlap check, the approval and the rejections commit together or not at all. Approvals
+    // of one item wait for each other on the item row; a booking changed meanwhile fails on its version instead
     @Override
+    @Transactional
     public BookingDto setApprove(Long userId, Boolean approved, Long bookingId) {
         Booking booking = getBooking(bookingId);
         User user = getUser(userId);
         checkItemOwner(user, booking);
         setBookingStatus(approved, booking);
-        return mapper.toDto(bookingRepository.save(booking));
+        BookingDto saved = mapper.toDto(bookingRepository.save(booking));
+        listingCache.bookingsChanged();
+        return saved;
     }
 
 
@@ -64,82 +89,176 @@ public class BookingServiceImpl implements BookingService {
         return mapper.toDto(booking);
     }
 
+    // changes whenever the booking, its item or its booker does, i.e. whenever getById would answer differently
+    @Override
+    public String getBookingTag(Long userId, Long bookingId) {
+        BookingVersionView view = bookingRepository.findVersionById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking not found"));
+        if (!userId.equals(view.getBookerId()) && !userId.equals(view.getOwnerId())) {
+            throw new NotFoundException("У вас нет прав смотреть данное бронирование");
+        }
+        return "b" + bookingId + "." + view.getVersion() + "." + view.getItemVersion() + "." + view.getBookerVersion();
+    }
+
     @Override
     public List<BookingDto> getAllByUserId(Long userId, String state, Long from, Long size) {
         getUser(userId);
-        Pageable pageable = PageRequest.of(from.intValue() / size.intValue(), size.intValue());
+        Pageable pageable = toPageable(from, size);
 
         List<Booking> bookings;
         switch (state) {
             case "ALL":
-                bookings = bookingRepository.findBookingByBookerIdOrderByStartDesc(userId, pageable);
+                bookings = bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(userId, pageable);
                 break;
             case "FUTURE":
-                bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDesc(userId,
-                        LocalDateTime.now(), pageable);
-                break;
+                return byTime(BY_BOOKER, userId, state, pageable, now ->
+                        bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(userId, now, pageable));
             case "REJECTED":
-                bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(userId,
+                bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(userId,
                         BookingStatus.REJECTED, pageable);
                 break;
             case "WAITING":
-                bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(userId,
+                bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(userId,
                         BookingStatus.WAITING, pageable);
                 break;
             case "CURRENT":
-                LocalDateTime now = LocalDateTime.now();
-                bookings = bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId,
-                        now, now, pageable);
-                break;
+                return byTime(BY_BOOKER, userId, state, pageable, now ->
+                        bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(userId,
+                                now, now, pageable));
             case "PAST":
-                bookings = bookingRepository.findBookingByBookerIdAndEndBeforeOrderByStartDesc(userId,
-                        LocalDateTime.now(), pageable);
-                break;
+                return byTime(BY_BOOKER, userId, state, pageable, now ->
+                        bookingRepository.findBookingByBookerIdAndEndBeforeOrderByStartDescIdDesc(userId, now, pageable));
             default:
                 throw new BadRequestException("Unknown state: " + state);
         }
 
-        return bookings.stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
+        return toDtos(bookings);
     }
 
 
     @Override
     public List<BookingDto> getAllByOwnerId(Long ownerId, String state, Long from, Long size) {
         getUser(ownerId);
-        List<Item> itemsByOwnerId = itemRepository.findItemsByOwnerIdOrderById(ownerId);
-        List<Booking> collect = bookingRepository.findAll().stream()
-                .sorted(Comparator.comparing(Booking::getStart).reversed())
-                .filter(booking -> itemsByOwnerId.contains(booking.getItem()))
-                .collect(Collectors.toList());
+        Pageable pageable = toPageable(from, size);
+
+        List<Booking> bookings;
+        switch (state) {
+            case "ALL":
+                bookings = bookingRepository.findBookingByItemOwnerIdOrderByStartDescIdDesc(ownerId, pageable);
+                break;
+            case "FUTURE":
+                return byTime(BY_OWNER, ownerId, state, pageable, now ->
+                        bookingRepository.findBookingByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(ownerId, now, pageable));
+            case "REJECTED":
+                bookings = bookingRepository.findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(ownerId,
+                        BookingStatus.REJECTED, pageable);
+                break;
+            case "WAITING":
+                bookings = bookingRepository.findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(ownerId,
+                        BookingStatus.WAITING, pageable);
+                break;
+            case "CURRENT":
+                return byTime(BY_OWNER, ownerId, state, pageable, now ->
+                        bookingRepository.findBookingByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(ownerId,
+                                now, now, pageable));
+            case "PAST":
+                return byTime(BY_OWNER, ownerId, state, pageable, now ->
+                        bookingRepository.findBookingByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(ownerId, now, pageable));
+            default:
+                throw new BadRequestException("Unknown state: " + state);
+        }
 
-        int fromIndex = from.intValue();
-        int toIndex = Math.min(fromIndex + size.intValue(), collect.size());
-        List<Booking> paginatedList = collect.subList(fromIndex, toIndex);
+        return toDtos(bookings);
+    }
 
+    @Override
+    public List<BookingDto> getAllByUserIdAfter(Long userId, String state, String cursor, Long size) {
+        getUser(userId);
+        BookingCursor after = BookingCursor.decode(cursor);
+        LocalDateTime start = after.getStart();
+        Long id = after.getId();
+        Pageable pageable = PageRequest.of(0, size.intValue());
+        String page = cursor + "/" + size;
+
+        List<Booking> bookings;
         switch (state) {
             case "ALL":
-                return paginatedList.stream().map(mapper::toDto).collect(Collectors.toList());
+                bookings = bookingRepository.seekByBooker(userId, start, id, pageable);
+                break;
             case "FUTURE":
-                return paginatedList.stream().filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                        .map(mapper::toDto).collect(Collectors.toList());
+                return byTime(BY_BOOKER, userId, state, page, now ->
+                        bookingRepository.seekFutureByBooker(userId, now, start, id, pageable));
             case "REJECTED":
-                return paginatedList.stream().filter(booking -> booking.getStatus() == BookingStatus.REJECTED)
-                        .map(mapper::toDto).collect(Collectors.toList());
+                bookings = bookingRepository.seekByBookerAndStatus(userId, BookingStatus.REJECTED, start, id, pageable);
+                break;
             case "WAITING":
-                return paginatedList.stream().filter(booking -> booking.getStatus() == BookingStatus.WAITING)
-                        .map(mapper::toDto).collect(Collectors.toList());
+                bookings = bookingRepository.seekByBookerAndStatus(userId, BookingStatus.WAITING, start, id, pageable);
+                break;
             case "CURRENT":
-                LocalDateTime now = LocalDateTime.now();
-                return paginatedList.stream().filter(booking -> booking.getStart().isBefore(now)
-                        && booking.getEnd().isAfter(now)).map(mapper::toDto).collect(Collectors.toList());
+                return byTime(BY_BOOKER, userId, state, page, now ->
+                        bookingRepository.seekCurrentByBooker(userId, now, start, id, pageable));
             case "PAST":
-                return paginatedList.stream().filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                        .map(mapper::toDto).collect(Collectors.toList());
+                return byTime(BY_BOOKER, userId, state, page, now ->
+                        bookingRepository.seekPastByBooker(userId, now, start, id, pageable));
             default:
                 throw new BadRequestException("Unknown state: " + state);
         }
+
+        return toDtos(bookings);
+    }
+
+    @Override
+    public List<BookingDto> getAllByOwnerIdAfter(Long ownerId, String state, String cursor, Long size) {
+        getUser(ownerId);
+        BookingCursor after = BookingCursor.decode(cursor);
+        LocalDateTime start = after.getStart();
+        Long id = after.getId();
+        Pageable pageable = PageRequest.of(0, size.intValue());
+        String page = cursor + "/" + size;
+
+        List<Booking> bookings;
+        switch (state) {
+            case "ALL":
+                bookings = bookingRepository.seekByOwner(ownerId, start, id, pageable);
+                break;
+            case "FUTURE":
+                return byTime(BY_OWNER, ownerId, state, page, now ->
+                        bookingRepository.seekFutureByOwner(ownerId, now, start, id, pageable));
+            case "REJECTED":
+                bookings = bookingRepository.seekByOwnerAndStatus(ownerId, BookingStatus.REJECTED, start, id, pageable);
+                break;
+            case "WAITING":
+                bookings = bookingRepository.seekByOwnerAndStatus(ownerId, BookingStatus.WAITING, start, id, pageable);
+                break;
+            case "CURRENT":
+                return byTime(BY_OWNER, ownerId, state, page, now ->
+                        bookingRepository.seekCurrentByOwner(ownerId, now, start, id, pageable));
+            case "PAST":
+                return byTime(BY_OWNER, ownerId, state, page, now ->
+                        bookingRepository.seekPastByOwner(ownerId, now, start, id, pageable));
+            default:
+                throw new BadRequestException("Unknown state: " + state);
+        }
+
+        return toDtos(bookings);
+    }
+
+    // states that depend on the time are sorted against the start of the current second, and a page asked for
+    // again within that second is shared
+    private List<BookingDto> byTime(String listing, Long userId, String state, Object page,
+                                    Function<LocalDateTime, List<Booking>> query) {
+        LocalDateTime now = BookingListingCache.bucket(requestTime.now());
+        return listingCache.get(listing, userId, state, page, now, () -> toDtos(query.apply(now)));
+    }
+
+    private List<BookingDto> toDtos(List<Booking> bookings) {
+        return bookings.stream()
+                .map(mapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private Pageable toPageable(Long from, Long size) {
+        return OffsetPageRequest.of(from, size.intValue());
     }
 
     private void setBookingStatus(Boolean approved, Booking booking) {
@@ -147,17 +266,29 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException();
         }
         if (approved.equals(true)) {
+            Long itemId = booking.getItem().getId();
+            itemRepository.findLockedById(itemId).orElseThrow(() -> new NotFoundException("Item not found"));
+            if (bookingRepository.existsByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(itemId,
+                    booking.getId(), BookingStatus.APPROVED, booking.getStart(), booking.getEnd())) {
+                throw new BadRequestException("На это время вещь уже забронирована другим пользователем");
+            }
             booking.setStatus(BookingStatus.APPROVED);
+            // requests for the same time can no longer be approved, so they are answered right away; saved
+            // explicitly, the in-memory store has no dirty checking
+            List<Booking> overlapping = bookingRepository.findByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(
+                    itemId, booking.getId(), BookingStatus.WAITING, booking.getStart(), booking.getEnd());
+            overlapping.forEach(rejected -> rejected.setStatus(BookingStatus.REJECTED));
+            bookingRepository.saveAll(overlapping);
         } else {
             booking.setStatus(BookingStatus.REJECTED);
         }
     }
 
     private void checkItemOwner(User user, Booking booking) {
-        if (booking.getBooker().equals(user)) {
+        if (booking.getBooker().getId().equals(user.getId())) {
             throw new NotFoundException("У вас нет прав менять статус вещи!");
         }
-        if (!booking.getItem().getOwner().equals(user)) {
+        if (!booking.getItem().getOwner().getId().equals(user.getId())) {
             throw new BadRequestException("Только владелец может менять статус бронирования");
         }
     }
@@ -170,19 +301,13 @@ public class BookingServiceImpl implements BookingService {
         return userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User not found"));
     }
 
-    private boolean checkItemAvailable(Long itemId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Item not found"));
-        return item.getAvailable();
-    }
-
     public Booking getBooking(Long bookingId) {
         return bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException("Booking not found"));
     }
 
-    public Booking create(Long itemId, Long userId, BookingCreateDto createDto) {
+    public Booking create(Item item, Long userId, BookingCreateDto createDto) {
         final Booking booking = mapper.toBooking(createDto);
         final User booker = getUser(userId);
-        final Item item = getItem(itemId);
         booking.setStatus(BookingStatus.WAITING);
         booking.setItem(item);
         booking.setBooker(booker);
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.repository.InMemoryBookingRepository;
+import ru.practicum.shareit.item.repository.InMemoryCommentRepository;
+import ru.practicum.shareit.item.repository.InMemoryItemRepository;
+import ru.practicum.shareit.request.repository.InMemoryRequestRepository;
+import ru.practicum.shareit.user.repository.InMemoryUserRepository;
+
+// the memory profile: the InMemory*Repository stores stand in for the JPA repositories, and the datasource, JPA
+// and Flyway are left out (application-memory.properties). Nothing survives a restart and a rolled back
+// transaction keeps its writes; transactions only bound how long findLockedById holds an item
+@Configuration
+@Profile("memory")
+public class InMemoryStoreConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new InMemoryTransactionManager();
+    }
+
+    // the foreign keys to users: a user with items, requests, bookings or comments is not deleted
+    @Bean
+    public SmartInitializingSingleton userReferences(InMemoryUserRepository users, InMemoryItemRepository items,
+                                                     InMemoryRequestRepository requests,
+                                                     InMemoryBookingRepository bookings,
+                                                     InMemoryCommentRepository comments) {
+        return () -> users.setReferenced(id -> items.hasOwner(id) || requests.hasRequestor(id)
+                || bookings.hasBooker(id) || comments.hasAuthor(id));
+    }
+
+    // begins and ends transactions, and runs their synchronizations, with no resource behind them
+    static class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            return transaction;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// sees every SQL statement Hibernate prepares; counts them for the request running on the current thread, which
+// with open-in-view is the one that owns the session
+public class StatementCounter implements StatementInspector {
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    // statements since start(), or -1 when counting was not started on this thread
+    public int stop() {
+        int[] current = count.get();
+        count.remove();
+        return current == null ? -1 : current[0];
+    }
+}
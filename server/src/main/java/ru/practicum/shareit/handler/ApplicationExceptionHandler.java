@@ -1,6 +1,7 @@
 package ru.practicum.shareit.handler;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -30,6 +31,15 @@ public class ApplicationExceptionHandler {
         return errorResponse;
     }
 
+    // another request changed the same rows first; repeating the request sees its result
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public SimpleErrorResponse handleConcurrencyFailureException(ConcurrencyFailureException e) {
+        SimpleErrorResponse errorResponse = new SimpleErrorResponse("Данные изменены другим запросом, повторите попытку");
+        log.error(e.getLocalizedMessage());
+        return errorResponse;
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleAllException(Exception e) {
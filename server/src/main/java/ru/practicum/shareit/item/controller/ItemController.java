@@ -2,14 +2,20 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.model.CommentText;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.util.Constants;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -26,6 +32,13 @@ public class ItemController {
         return itemService.addItem(itemDto, userId);
     }
 
+    @PostMapping("batch")
+    public List<ItemRequestDto> addItems(@RequestHeader(Constants.USER_HEADER_ID) Long userId,
+                                         @RequestBody List<ItemRequestDto> items) {
+        log.info("Добавление {} предметов пользователем userId = {}", items.size(), userId);
+        return itemService.addItems(items, userId);
+    }
+
     @PatchMapping("{id}")
     public ItemDto updateItem(@RequestHeader(Constants.USER_HEADER_ID) Long userId,
                               @PathVariable Long id,
@@ -36,8 +49,12 @@ public class ItemController {
 
     @GetMapping("{id}")
     public ItemDto getItemById(@RequestHeader(Constants.USER_HEADER_ID) Long userId,
-                               @PathVariable Long id) {
+                               @PathVariable Long id,
+                               WebRequest request) {
         log.info("Получение предмета с id = {}, пользователем userId = {}", id, userId);
+        if (request.checkNotModified(itemService.getItemTag(userId, id))) {
+            return null;
+        }
         return itemService.getItemById(userId, id);
     }
 
@@ -48,9 +65,36 @@ public class ItemController {
     }
 
     @GetMapping("search")
-    public List<ItemDto> searchItemsByName(@RequestParam(required = false, name = "text") String text) {
-        log.info("Поиск предметов содержащих в названии {}", text);
-        return itemService.searchItemsByName(text);
+    public List<ItemDto> searchItemsByName(@RequestParam(required = false, name = "text") String text,
+                                           @RequestParam(name = "from", defaultValue = "0") Long from,
+                                           @RequestParam(name = "size", defaultValue = "10") Long size) {
+        log.info("Поиск предметов содержащих в названии {}, from = {}, size = {}", text, from, size);
+        return itemService.searchItemsByName(text, from, size);
+    }
+
+    @GetMapping("{id}/availability")
+    public List<FreeSlotDto> getFreeSlots(@PathVariable Long id,
+                                          @RequestParam(name = "from", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam(name = "to", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Получение свободных периодов предмета id = {}, from = {}, to = {}", id, from, to);
+        return itemService.getFreeSlots(id, from, to);
+    }
+
+    @GetMapping("{id}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long id,
+                                                        @RequestParam(name = "size", defaultValue = "10") Long size,
+                                                        @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Получение комментариев предмета id = {}, size = {}, cursor = {}", id, size, cursor);
+        List<CommentDto> comments = itemService.getComments(id, cursor, size);
+        if (comments.isEmpty() || comments.size() < size) {
+            return ResponseEntity.ok(comments);
+        }
+        CommentDto last = comments.get(comments.size() - 1);
+        return ResponseEntity.ok()
+                .header(Constants.NEXT_CURSOR_HEADER, CommentCursor.after(last).encode())
+                .body(comments);
     }
 
     @PostMapping("{itemId}/comment")
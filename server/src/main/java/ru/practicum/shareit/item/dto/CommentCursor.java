@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// comments are listed newest first by id, so the id of the last one is all the next page needs
+@Getter
+@ToString
+@EqualsAndHashCode
+public class CommentCursor {
+    private final Long id;
+
+    public CommentCursor(Long id) {
+        this.id = id;
+    }
+
+    public static CommentCursor after(CommentDto comment) {
+        return new CommentCursor(comment.getId());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CommentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new CommentCursor(Long.valueOf(raw));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.dto;
 import lombok.*;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,5 +20,8 @@ public class ItemDto {
     private Boolean available;
     private BookingItemDto lastBooking;
     private BookingItemDto nextBooking;
+    // the latest comments only, older ones come from GET /items/{id}/comments
     private List<CommentDto> comments = new ArrayList<>();
+    private Long commentCount;
+    private LocalDateTime lastCommentAt;
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.ItemCommentView;
+
+import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
+
+@Mapper(componentModel = SPRING)
+public interface CommentMapper {
+    @Mapping(target = "authorName", source = "user.name")
+    CommentDto toDto(Comment comment);
+
+    CommentDto toDto(ItemCommentView comment);
+}
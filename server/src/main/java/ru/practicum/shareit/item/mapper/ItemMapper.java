@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.model.Item;
@@ -9,9 +10,27 @@ import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
 
 @Mapper(componentModel = SPRING)
 public interface ItemMapper {
+    // bookings and comments are filled in by the service
+    @Mapping(target = "lastBooking", ignore = true)
+    @Mapping(target = "nextBooking", ignore = true)
+    @Mapping(target = "comments", ignore = true)
     ItemDto toDto(Item item);
 
+    // owner and request are set by the service, version by Hibernate
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "request", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "lastCommentAt", ignore = true)
     Item toItem(ItemDto itemDto);
 
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "request", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "lastCommentAt", ignore = true)
     Item toItem(ItemRequestDto itemDto);
+
+    @Mapping(target = "requestId", source = "request.id")
+    ItemRequestDto toRequestDto(Item item);
 }
@@ -1,13 +1,18 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,7 +20,8 @@ import javax.persistence.*;
 @Builder
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name")
@@ -35,6 +41,25 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     private Request request;
 
+    // maintained by addComment, which holds the item's row lock while it counts
+    @Column(name = "comment_count")
+    private long commentCount;
+
+    @Column(name = "last_comment_at")
+    private LocalDateTime lastCommentAt;
+
+    @Version
+    private long version;
+
+    public Item(Long id, String name, String description, Boolean available, User owner, Request request) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.owner = owner;
+        this.request = request;
+    }
+
     public Item(String name, String description) {
         this.name = name;
         this.description = description;
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+public interface ItemCommentView {
+
+    Long getItemId();
+
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.model;
+
+public interface ItemVersionView {
+
+    Long getOwnerId();
+
+    Long getVersion();
+}
@@ -1,11 +1,38 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.ItemCommentView;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findCommentByItemIdOrderById(Long itemId);
+
+    // the latest :limit comments of each item in the order they were written, with the author's name
+    @Query(value = "SELECT t.item_id AS itemId, t.id AS id, t.text AS text, u.name AS authorName, " +
+            "t.created AS created FROM (" +
+            "SELECT c.item_id, c.id, c.text, c.author_id, c.created, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.id DESC) AS rn " +
+            "FROM comments c " +
+            "WHERE c.item_id IN (:itemIds)) t " +
+            "LEFT JOIN users u ON u.id = t.author_id " +
+            "WHERE t.rn <= :limit ORDER BY t.id", nativeQuery = true)
+    List<ItemCommentView> findLatestCommentsByItemIdIn(@Param("itemIds") List<Long> itemIds,
+                                                       @Param("limit") int limit);
+
+    // newest first, with the author, so mapping authorName does not select each user on its own
+    @Query("select c from Comment c left join fetch c.user where c.item.id = :itemId order by c.id desc")
+    List<Comment> findLatestWithAuthorByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query("select c from Comment c left join fetch c.user where c.item.id = :itemId and c.id < :id order by c.id desc")
+    List<Comment> seekWithAuthorByItemId(@Param("itemId") Long itemId, @Param("id") Long id, Pageable pageable);
+
+    // authors of the latest comments, which are the ones shown with the item; a rename moves their version
+    @Query("select u.version from Comment c join c.user u where c.item.id = :itemId order by c.id desc")
+    List<Long> findLatestAuthorVersionsByItemId(@Param("itemId") Long itemId, Pageable pageable);
 }
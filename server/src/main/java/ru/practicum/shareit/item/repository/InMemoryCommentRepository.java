@@ -0,0 +1,176 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.ItemCommentView;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.InMemoryJpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// the CommentRepository of the memory profile. Rows keep the ids of item and author and comments are read with
+// both as their stores have them now, so a renamed author shows up like with the join; comments of an item are
+// indexed by id
+@Repository
+@Profile("memory")
+public class InMemoryCommentRepository extends InMemoryJpaRepository<Comment> implements CommentRepository {
+    private final Map<Long, Row> comments = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> commentsByItem = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    public InMemoryCommentRepository(ItemRepository itemRepository, UserRepository userRepository) {
+        super(Comment.class, Comment::getId);
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public <S extends Comment> S save(S comment) {
+        if (comment.getId() == null) {
+            comment.setId(idGenerator.getAndIncrement());
+        }
+        Row row = new Row(comment);
+        Row previous = comments.put(row.getId(), row);
+        if (previous != null) {
+            unindex(commentsByItem, previous.getItemId(), row.getId());
+        }
+        index(commentsByItem, row.getItemId(), row.getId());
+        return comment;
+    }
+
+    @Override
+    public Optional<Comment> findById(Long id) {
+        return Optional.ofNullable(comments.get(id)).map(this::toComment);
+    }
+
+    @Override
+    public List<Comment> findAll() {
+        return comments.values().stream()
+                .sorted(Comparator.comparing(Row::getId))
+                .map(this::toComment)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return comments.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return comments.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        Row row = comments.remove(id);
+        if (row != null) {
+            unindex(commentsByItem, row.getItemId(), id);
+        }
+    }
+
+    @Override
+    public List<Comment> findCommentByItemIdOrderById(Long itemId) {
+        return rows(List.of(itemId), Comparator.naturalOrder())
+                .map(this::toComment)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ItemCommentView> findLatestCommentsByItemIdIn(List<Long> itemIds, int limit) {
+        return itemIds.stream()
+                .distinct()
+                .flatMap(itemId -> rows(List.of(itemId), Comparator.reverseOrder()).limit(limit))
+                .sorted(Comparator.comparing(Row::getId))
+                .map(row -> new LatestComment(row.getItemId(), row.getId(), row.getText(),
+                        userRepository.findById(row.getAuthorId()).map(User::getName).orElse(null),
+                        row.getCreated()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Comment> findLatestWithAuthorByItemId(Long itemId, Pageable pageable) {
+        return page(rows(List.of(itemId), Comparator.reverseOrder()), pageable).stream()
+                .map(this::toComment)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Comment> seekWithAuthorByItemId(Long itemId, Long id, Pageable pageable) {
+        return page(rows(List.of(itemId), Comparator.reverseOrder()).filter(row -> row.getId() < id), pageable)
+                .stream()
+                .map(this::toComment)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Long> findLatestAuthorVersionsByItemId(Long itemId, Pageable pageable) {
+        return page(rows(List.of(itemId), Comparator.reverseOrder()), pageable).stream()
+                .map(row -> userRepository.findVersionById(row.getAuthorId()))
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    public boolean hasAuthor(Long userId) {
+        return comments.values().stream().anyMatch(row -> row.getAuthorId().equals(userId));
+    }
+
+    private Stream<Row> rows(List<Long> itemIds, Comparator<Long> order) {
+        return ids(commentsByItem, itemIds)
+                .sorted(order)
+                .map(comments::get)
+                .filter(Objects::nonNull);
+    }
+
+    private Comment toComment(Row row) {
+        Comment comment = new Comment();
+        comment.setId(row.getId());
+        comment.setText(row.getText());
+        comment.setItem(itemRepository.findById(row.getItemId()).orElse(null));
+        comment.setUser(userRepository.findById(row.getAuthorId()).orElse(null));
+        comment.setCreated(row.getCreated());
+        return comment;
+    }
+
+    @Value
+    private static class LatestComment implements ItemCommentView {
+        Long itemId;
+        Long id;
+        String text;
+        String authorName;
+        LocalDateTime created;
+    }
+
+    @Value
+    private static class Row {
+        Long id;
+        String text;
+        Long itemId;
+        Long authorId;
+        LocalDateTime created;
+
+        Row(Comment comment) {
+            this.id = comment.getId();
+            this.text = comment.getText();
+            this.itemId = comment.getItem().getId();
+            this.authorId = comment.getUser().getId();
+            this.created = comment.getCreated();
+        }
+    }
+}
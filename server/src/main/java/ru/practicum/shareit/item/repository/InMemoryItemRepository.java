@@ -1,76 +1,232 @@
 package ru.practicum.shareit.item.repository;
 
-import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemVersionView;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.InMemoryJpaRepository;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+// answers the queries of ItemRepository from memory. Items of an owner and of a request are indexed by id, so
+// listing them does not look at other items, and name and description are kept lower-cased for search instead of
+// being lower-cased on every comparison. Stored items are copies, callers never share them.
+// The ItemRepository of the memory profile
 @Repository
-@RequiredArgsConstructor
-public class InMemoryItemRepository {
-    private final Map<Long, Item> items = new HashMap<>();
-    protected Long idGenerator = 1L;
+@Profile("memory")
+public class InMemoryItemRepository extends InMemoryJpaRepository<Item> implements ItemRepository {
+    private final Map<Long, Entry> items = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> itemsByOwner = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> itemsByRequest = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
     private final UserRepository userRepository;
 
+    public InMemoryItemRepository(UserRepository userRepository) {
+        super(Item.class, Item::getId);
+        this.userRepository = userRepository;
+    }
 
     public Item add(Item item) {
-        item.setId(idGenerator++);
-        items.put(item.getId(), item);
+        item.setId(idGenerator.getAndIncrement());
+        Entry entry = new Entry(copy(item));
+        items.put(item.getId(), entry);
+        index(itemsByOwner, entry.getOwnerId(), item.getId());
+        index(itemsByRequest, entry.getRequestId(), item.getId());
         return item;
     }
 
     public Item update(Item item, Long id, Long userId) {
-        if (!items.containsKey(id)) {
+        // per item the update runs inside compute, so concurrent changes of one item do not interleave
+        Entry updated = items.computeIfPresent(id, (key, entry) -> {
+            if (!userId.equals(entry.getOwnerId())) {
+                throw new NotFoundException("У данной вещи другой владелец!");
+            }
+            item.setOwner(userRepository.getReferenceById(userId));
+            item.setId(id);
+            return new Entry(checkUpdatesAndUpdateItem(item, copy(entry.getItem())));
+        });
+        if (updated == null) {
             throw new NotFoundException("Предмет с id " + id + " не найден");
         }
-        if (!checkItemOwner(id, userId)) {
-            throw new NotFoundException("У данной вещи другой владелец!");
-        }
-        item.setOwner(userRepository.getReferenceById(userId));
-        item.setId(id);
-        Item savedItem = items.get(id);
-        Item updateItem = checkUpdatesAndUpdateItem(item, savedItem);
-        return items.put(id, updateItem);
+        return copy(updated.getItem());
     }
 
 
     public Item getById(Long userId, Long id) {
-        if (!items.containsKey(id)) {
-            throw new NotFoundException("Предмет с id " + id + " не найден");
-        }
-        return items.get(id);
+        return findById(id).orElseThrow(() -> new NotFoundException("Предмет с id " + id + " не найден"));
     }
 
     public List<Item> getAllUserItems(Long userId) {
+        return findItemsByOwnerIdOrderById(userId);
+    }
+
+    public List<Item> searchByName(String text) {
+        return search(normalize(text))
+                .map(entry -> copy(entry.getItem()))
+                .collect(Collectors.toList());
+    }
+
+    // a stale version fails like @Version; owner and request indexes follow the saved item
+    @Override
+    public <S extends Item> S save(S item) {
+        if (item.getId() == null) {
+            add(item);
+            return item;
+        }
+        items.compute(item.getId(), (id, entry) -> {
+            checkVersion(id, entry == null ? null : entry.getItem().getVersion(), item.getVersion());
+            Item stored = copy(item);
+            stored.setVersion(item.getVersion() + 1);
+            Entry saved = new Entry(stored);
+            if (!Objects.equals(entry.getOwnerId(), saved.getOwnerId())) {
+                unindex(itemsByOwner, entry.getOwnerId(), id);
+                index(itemsByOwner, saved.getOwnerId(), id);
+            }
+            if (!Objects.equals(entry.getRequestId(), saved.getRequestId())) {
+                unindex(itemsByRequest, entry.getRequestId(), id);
+                index(itemsByRequest, saved.getRequestId(), id);
+            }
+            return saved;
+        });
+        item.setVersion(item.getVersion() + 1);
+        return item;
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        return Optional.ofNullable(items.get(id)).map(entry -> copy(entry.getItem()));
+    }
+
+    @Override
+    public List<Item> findAll() {
         return items.values().stream()
-                .filter(item -> item.getOwner().getId().equals(userId))
+                .map(entry -> copy(entry.getItem()))
+                .sorted(Comparator.comparing(Item::getId))
                 .collect(Collectors.toList());
     }
 
-    public List<Item> searchByName(String text) {
-        if (text.isEmpty()) {
-            return new ArrayList<>();
+    @Override
+    public boolean existsById(Long id) {
+        return items.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return items.size();
+    }
+
+    @Override
+    public Optional<ItemVersionView> findVersionById(Long id) {
+        return Optional.ofNullable(items.get(id))
+                .map(entry -> new ItemVersion(entry.getOwnerId(), entry.getItem().getVersion()));
+    }
+
+    // the row lock of the database: held until the transaction ends, so callers for one item take turns; outside
+    // a transaction it only waits for the current holder, like the lock of a statement committed on its own
+    @Override
+    public Optional<Item> findLockedById(Long id) {
+        if (!items.containsKey(id)) {
+            return Optional.empty();
         }
+        ReentrantLock lock = locks.computeIfAbsent(id, key -> new ReentrantLock());
+        lock.lock();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        } else {
+            lock.unlock();
+        }
+        return findById(id);
+    }
+
+    @Override
+    public List<Item> findItemsByNameContainsIgnoreCaseAndAvailableIsTrueOrDescriptionContainsIgnoreCaseAndAvailableIsTrue(
+            String name, String description) {
+        String nameText = normalize(name);
+        String descriptionText = normalize(description);
         return items.values().stream()
-                .filter(item -> (item.getName().toLowerCase().contains(text.toLowerCase())
-                        || item.getDescription().toLowerCase().contains(text.toLowerCase()))
-                        && item.getAvailable().equals(true))
+                .filter(entry -> Boolean.TRUE.equals(entry.getItem().getAvailable()))
+                .filter(entry -> entry.getName().contains(nameText) || entry.getDescription().contains(descriptionText))
+                .map(entry -> copy(entry.getItem()))
+                .sorted(Comparator.comparing(Item::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Item> findAllById(Iterable<Long> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .distinct()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(entry -> copy(entry.getItem()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Item> findItemsByOwnerIdOrderById(Long ownerId) {
+        return lookup(itemsByOwner, List.of(ownerId));
+    }
+
+    @Override
+    public List<Item> findItemsByRequestIdIn(List<Long> requestIds) {
+        return lookup(itemsByRequest, requestIds);
+    }
+
+    @Override
+    public Item findItemByRequestId(Long requestId) {
+        List<Item> found = lookup(itemsByRequest, List.of(requestId));
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    // same pattern as ItemRepository: lower-cased, with \, % and _ escaped by a backslash
+    @Override
+    public List<Long> searchAvailableItemIds(String text, Pageable pageable) {
+        return search(unescape(text))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(entry -> entry.getItem().getId())
                 .collect(Collectors.toList());
     }
 
-    private boolean checkItemOwner(Long id, Long userId) {
-        return items.get(id).getOwner().getId().equals(userId);
+    @Override
+    public void deleteById(Long id) {
+        Entry entry = items.remove(id);
+        if (entry == null) {
+            throw new NotFoundException("Предмет с id " + id + " не найден");
+        }
+        unindex(itemsByOwner, entry.getOwnerId(), id);
+        unindex(itemsByRequest, entry.getRequestId(), id);
+    }
 
+    public boolean hasOwner(Long userId) {
+        return itemsByOwner.containsKey(userId);
     }
 
-    public Item checkUpdatesAndUpdateItem(Item item, Item updatedItem) {
+    public static Item checkUpdatesAndUpdateItem(Item item, Item updatedItem) {
         String name = item.getName();
         String description = item.getDescription();
         Boolean available = item.getAvailable();
@@ -84,13 +240,104 @@ public class InMemoryItemRepository {
         if (available != null) {
             updatedItem.setAvailable(available);
         }
-        items.put(item.getId(), updatedItem);
         return updatedItem;
 
     }
 
     public void removeAll() {
-        idGenerator = 1L;
         items.clear();
+        itemsByOwner.clear();
+        itemsByRequest.clear();
+        locks.clear();
+        idGenerator.set(1);
+    }
+
+    // ranked like the database search: name starts with the text, name contains it, description contains it
+    private Stream<Entry> search(String text) {
+        if (text.isEmpty()) {
+            return Stream.empty();
+        }
+        // ranked once per item, the sort compares the stored ranks
+        return items.values().stream()
+                .filter(entry -> Boolean.TRUE.equals(entry.getItem().getAvailable()))
+                .map(entry -> new Ranked(entry, entry.rank(text)))
+                .filter(ranked -> ranked.getRank() >= 0)
+                .sorted(Comparator.comparingInt(Ranked::getRank)
+                        .thenComparing(ranked -> ranked.getEntry().getItem().getId()))
+                .map(Ranked::getEntry);
+    }
+
+    private List<Item> lookup(Map<Long, Set<Long>> index, Collection<Long> keys) {
+        return ids(index, keys)
+                .sorted()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(entry -> copy(entry.getItem()))
+                .collect(Collectors.toList());
+    }
+
+    private static Item copy(Item item) {
+        Item copy = new Item(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getOwner(), item.getRequest());
+        copy.setCommentCount(item.getCommentCount());
+        copy.setLastCommentAt(item.getLastCommentAt());
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static String unescape(String pattern) {
+        StringBuilder text = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                c = pattern.charAt(++i);
+            }
+            text.append(c);
+        }
+        return text.toString();
+    }
+
+    @Value
+    private static class Entry {
+        Item item;
+        Long ownerId;
+        Long requestId;
+        String name;
+        String description;
+
+        Entry(Item item) {
+            this.item = item;
+            this.ownerId = item.getOwner() == null ? null : item.getOwner().getId();
+            this.requestId = item.getRequest() == null ? null : item.getRequest().getId();
+            this.name = normalize(item.getName());
+            this.description = normalize(item.getDescription());
+        }
+
+        int rank(String text) {
+            int position = name.indexOf(text);
+            if (position == 0) {
+                return 0;
+            }
+            if (position > 0) {
+                return 1;
+            }
+            return description.contains(text) ? 2 : -1;
+        }
+    }
+
+    @Value
+    private static class ItemVersion implements ItemVersionView {
+        Long ownerId;
+        Long version;
+    }
+
+    @Value
+    private static class Ranked {
+        Entry entry;
+        int rank;
     }
 }
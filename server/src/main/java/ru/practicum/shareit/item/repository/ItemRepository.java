@@ -1,17 +1,39 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemVersionView;
 
+import javax.persistence.LockModeType;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findItemsByOwnerIdOrderById(Long id);
 
     List<Item> findItemsByNameContainsIgnoreCaseAndAvailableIsTrueOrDescriptionContainsIgnoreCaseAndAvailableIsTrue(String name, String description);
 
+    @Query("select i.id from Item i where i.available = true " +
+            "and (lower(i.name) like concat('%', :text, '%') escape '\\' " +
+            "or lower(i.description) like concat('%', :text, '%') escape '\\') " +
+            "order by case when lower(i.name) like concat(:text, '%') escape '\\' then 0 " +
+            "when lower(i.name) like concat('%', :text, '%') escape '\\' then 1 else 2 end, i.id")
+    List<Long> searchAvailableItemIds(@Param("text") String text, Pageable pageable);
+
     List<Item> findItemsByRequestIdIn(List<Long> ids);
 
     Item findItemByRequestId(Long requestId);
 
+    @Query("select i.owner.id as ownerId, i.version as version from Item i where i.id = :id")
+    Optional<ItemVersionView> findVersionById(@Param("id") Long id);
+
+    // held until commit, so only one transaction at a time decides on the item's bookings. Not a forced version
+    // increment: that bypasses the items cache region, which would keep serving the old version
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Item> findLockedById(Long id);
+
 }
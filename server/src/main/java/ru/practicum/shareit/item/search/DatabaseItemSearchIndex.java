@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
+
+import java.util.List;
+import java.util.Locale;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.backend", havingValue = "database")
+@RequiredArgsConstructor
+public class DatabaseItemSearchIndex implements ItemSearchIndex {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public void index(Item item) {
+        // rows are indexed by the database itself (pg_trgm on Postgres)
+    }
+
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        if (text.isEmpty()) {
+            return List.of();
+        }
+        String pattern = text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return itemRepository.searchAvailableItemIds(pattern, OffsetPageRequest.of(from, size));
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.backend", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class NgramItemSearchIndex implements ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        itemRepository.findAll().forEach(this::index);
+    }
+
+    @Override
+    public void index(Item item) {
+        Long id = item.getId();
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.remove(id);
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    Set<Long> ids = postings.get(gram);
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            if (!Boolean.TRUE.equals(item.getAvailable())) {
+                return;
+            }
+            Document document = new Document(id, normalize(item.getName()), normalize(item.getDescription()));
+            documents.put(id, document);
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        String query = normalize(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return candidates(query).stream()
+                    .map(document -> new Ranked(document.getId(), document.rank(query)))
+                    .filter(ranked -> ranked.getRank() >= 0)
+                    .sorted(Comparator.comparingInt(Ranked::getRank).thenComparing(Ranked::getId))
+                    .skip(from)
+                    .limit(size)
+                    .map(Ranked::getId)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Document> candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return documents.values();
+        }
+        Set<Long> ids = null;
+        for (String gram : grams(query)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            if (ids == null) {
+                ids = new HashSet<>(posting);
+            } else {
+                ids.retainAll(posting);
+            }
+        }
+        return ids.stream()
+                .map(documents::get)
+                .collect(Collectors.toList());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    @Value
+    private static class Document {
+        Long id;
+        String name;
+        String description;
+
+        Set<String> grams() {
+            Set<String> grams = NgramItemSearchIndex.grams(name);
+            grams.addAll(NgramItemSearchIndex.grams(description));
+            return grams;
+        }
+
+        int rank(String query) {
+            int position = name.indexOf(query);
+            if (position == 0) {
+                return 0;
+            }
+            if (position > 0) {
+                return 1;
+            }
+            return description.contains(query) ? 2 : -1;
+        }
+    }
+
+    @Value
+    private static class Ranked {
+        Long id;
+        int rank;
+    }
+}
@@ -1,23 +1,33 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.model.CommentText;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     ItemRequestDto addItem(ItemRequestDto item, Long userId);
 
+    List<ItemRequestDto> addItems(List<ItemRequestDto> items, Long userId);
+
     ItemDto updateItem(Long userId, Long id, ItemDto itemDto);
 
     ItemDto getItemById(Long userId, Long id);
 
+    String getItemTag(Long userId, Long id);
+
     List<ItemDto> getAllUserItems(Long userId);
 
-    List<ItemDto> searchItemsByName(String text);
+    List<ItemDto> searchItemsByName(String text, Long from, Long size);
+
+    List<CommentDto> getComments(Long itemId, String cursor, Long size);
 
     CommentDto addComment(Long userId, Long itemId, CommentText text);
+
+    List<FreeSlotDto> getFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to);
 }
 
@@ -1,33 +1,47 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriodView;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.CommentText;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemCommentView;
+import ru.practicum.shareit.item.model.ItemVersionView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.InMemoryItemRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestTime;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,12 +49,15 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
-    private final InMemoryItemRepository memoryItemRepository;
     private final BookingRepository bookingRepository;
     private final ItemMapper itemMapper;
     private final CommentRepository commentRepository;
-    private final ModelMapper modelMapper;
+    private final CommentMapper commentMapper;
     private final RequestRepository requestRepository;
+    private final ItemSearchIndex searchIndex;
+    private final RequestTime requestTime;
+    private static final long AVAILABILITY_WINDOW_DAYS = 30;
+    private static final int LATEST_COMMENTS = 10;
     private final List<BookingStatus> wrongStatuses = List.of(BookingStatus.WAITING, BookingStatus.REJECTED, BookingStatus.CANCELED);
 
     @Override
@@ -54,7 +71,42 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(request);
         }
         Item save = itemRepository.save(item);
-        return modelMapper.map(save, ItemRequestDto.class);
+        searchIndex.index(save);
+        return itemMapper.toRequestDto(save);
+    }
+
+    @Override
+    public List<ItemRequestDto> addItems(List<ItemRequestDto> itemDtos, Long userId) {
+        checkUserExists(userId);
+        User owner = userRepository.getReferenceById(userId);
+        Map<Long, Request> requestsById = requestRepository.findAllById(itemDtos.stream()
+                        .map(ItemRequestDto::getRequestId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Request::getId, Function.identity()));
+
+        List<Item> items = new ArrayList<>();
+        for (ItemRequestDto itemDto : itemDtos) {
+            Item item = itemMapper.toItem(itemDto);
+            item.setOwner(owner);
+            Long requestId = itemDto.getRequestId();
+            if (requestId != null) {
+                Request request = requestsById.get(requestId);
+                if (request == null) {
+                    throw new NotFoundException("Запрос с id " + requestId + " не найден");
+                }
+                item.setRequest(request);
+            }
+            items.add(item);
+        }
+
+        // one transaction, so the inserts go out as JDBC batches with ids from the pooled sequence
+        List<Item> saved = itemRepository.saveAll(items);
+        saved.forEach(searchIndex::index);
+        return saved.stream()
+                .map(itemMapper::toRequestDto)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -67,8 +119,10 @@ public class ItemServiceImpl implements ItemService {
         item.setOwner(owner);
         item.setId(itemId);
         Item savedItem = itemRepository.getReferenceById(itemId);
-        Item updateItem = memoryItemRepository.checkUpdatesAndUpdateItem(item, savedItem);
-        return itemMapper.toDto(itemRepository.save(updateItem));
+        Item updateItem = InMemoryItemRepository.checkUpdatesAndUpdateItem(item, savedItem);
+        Item save = itemRepository.save(updateItem);
+        searchIndex.index(save);
+        return itemMapper.toDto(save);
     }
 
 
@@ -76,59 +130,157 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto getItemById(Long userId, Long itemId) {
         checkItemExists(itemId);
         ItemDto itemDto = itemMapper.toDto(itemRepository.getReferenceById(itemId));
-        itemDto.setComments(getCommentsForItem(itemId));
+        itemDto.setComments(getLatestComments(itemId));
         return setItemBookings(itemDto, userId, itemId);
     }
 
+    // a new comment moves the item's version, renamed authors of the shown comments move the sum of their versions;
+    // the owner also sees last and next booking, so their ids are part of the owner's tag
+    @Override
+    public String getItemTag(Long userId, Long itemId) {
+        ItemVersionView item = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("Предмет с id " + itemId + " не найден"));
+        long authorsVersion = commentRepository.findLatestAuthorVersionsByItemId(itemId,
+                        PageRequest.of(0, LATEST_COMMENTS)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        String tag = "i" + itemId + "." + item.getVersion() + ".c" + authorsVersion;
+        if (!item.getOwnerId().equals(userId)) {
+            return tag;
+        }
+        ItemDto bookings = fillBookings(new ItemDto(), itemId);
+        return tag + ".o" + bookingTag(bookings.getLastBooking()) + "." + bookingTag(bookings.getNextBooking());
+    }
+
     @Override
     public List<ItemDto> getAllUserItems(Long userId) {
-        List<ItemDto> collect = itemRepository.findItemsByOwnerIdOrderById(userId)
+        List<ItemDto> items = itemRepository.findItemsByOwnerIdOrderById(userId)
                 .stream()
                 .map(itemMapper::toDto)
                 .collect(Collectors.toList());
-        List<ItemDto> withBookings = new ArrayList<>();
-        for (ItemDto itemDto : collect) {
+        if (items.isEmpty()) {
+            return items;
+        }
+        List<Long> itemIds = items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = requestTime.now();
+
+        Map<Long, BookingItemDto> lastByItemId = bookingRepository.findLastBookingsByItemIdIn(itemIds, now).stream()
+                .collect(Collectors.toMap(ItemBookingView::getItemId, this::toBookingItemDto));
+        Map<Long, BookingItemDto> nextByItemId = bookingRepository.findNextBookingsByItemIdIn(itemIds, now).stream()
+                .collect(Collectors.toMap(ItemBookingView::getItemId, this::toBookingItemDto));
+        Map<Long, List<CommentDto>> commentsByItemId = commentRepository.findLatestCommentsByItemIdIn(itemIds,
+                        LATEST_COMMENTS).stream()
+                .collect(Collectors.groupingBy(ItemCommentView::getItemId,
+                        Collectors.mapping(commentMapper::toDto, Collectors.toList())));
+
+        for (ItemDto itemDto : items) {
             Long id = itemDto.getId();
-            withBookings.add(setItemBookings(itemDto, userId, id));
+            itemDto.setLastBooking(lastByItemId.get(id));
+            itemDto.setNextBooking(nextByItemId.get(id));
+            itemDto.setComments(commentsByItemId.getOrDefault(id, new ArrayList<>()));
         }
-        return withBookings;
+        return items;
     }
 
     @Override
-    public List<ItemDto> searchItemsByName(String text) {
-        if (!text.isEmpty()) {
-            return itemRepository.findItemsByNameContainsIgnoreCaseAndAvailableIsTrueOrDescriptionContainsIgnoreCaseAndAvailableIsTrue(text, text)
-                    .stream()
-                    .map(itemMapper::toDto)
-                    .collect(Collectors.toList());
+    public List<ItemDto> searchItemsByName(String text, Long from, Long size) {
+        if (text.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = searchIndex.search(text, from.intValue(), size.intValue());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
-        return new ArrayList<>();
+        Map<Long, Item> itemsById = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .map(itemMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // newest first; the cursor is the last comment of the previous page
+    @Override
+    public List<CommentDto> getComments(Long itemId, String cursor, Long size) {
+        checkItemExists(itemId);
+        Pageable pageable = PageRequest.of(0, size.intValue());
+        List<Comment> comments = cursor == null
+                ? commentRepository.findLatestWithAuthorByItemId(itemId, pageable)
+                : commentRepository.seekWithAuthorByItemId(itemId, CommentCursor.decode(cursor).getId(), pageable);
+        return comments.stream()
+                .map(commentMapper::toDto)
+                .collect(Collectors.toList());
     }
 
+    // the comment and the item's comment count are written together; comments on one item queue on its row lock,
+    // so none of them is lost or turned into a version conflict
     @Override
+    @Transactional
     public CommentDto addComment(Long userId, Long itemId, CommentText text) {
-        List<Booking> bookings = bookingRepository.findBookingByItemIdAndBookerIdAndStatusNotInAndEndBefore(itemId,
-                userId, wrongStatuses, LocalDateTime.now());
-        if (!bookings.isEmpty()) {
-            Item item = bookings.get(0).getItem();
-            User user = bookings.get(0).getBooker();
-            Comment comment = new Comment();
-            comment.setText(text.getText());
-            comment.setItem(item);
-            comment.setUser(user);
-            comment.setCreated(LocalDateTime.now());
-            CommentDto map = modelMapper.map(comment, CommentDto.class);
-            ItemDto dto = itemMapper.toDto(item);
-            dto.getComments().add(map);
-            commentRepository.save(comment);
-            return modelMapper.map(comment, CommentDto.class);
-        }
-        throw new BadRequestException();
-    }
-
-    private List<CommentDto> getCommentsForItem(Long itemId) {
-        List<Comment> allById = commentRepository.findCommentByItemIdOrderById(itemId);
-        return allById.stream().map(comment -> modelMapper.map(comment, CommentDto.class)).collect(Collectors.toList());
+        LocalDateTime now = requestTime.now();
+        if (bookingRepository.findFinishedBookingIds(itemId, userId, wrongStatuses, now, PageRequest.of(0, 1))
+                .isEmpty()) {
+            throw new BadRequestException();
+        }
+        Item item = itemRepository.findLockedById(itemId)
+                .orElseThrow(() -> new NotFoundException("Предмет с id " + itemId + " не найден"));
+        Comment comment = new Comment();
+        comment.setText(text.getText());
+        comment.setItem(item);
+        // the booking above proves the user exists; the name for the answer usually comes from the users cache
+        comment.setUser(userRepository.getReferenceById(userId));
+        comment.setCreated(now);
+        commentRepository.save(comment);
+        item.setCommentCount(item.getCommentCount() + 1);
+        // the time is taken before waiting for the lock, so a comment committed later may be the older one
+        if (item.getLastCommentAt() == null || item.getLastCommentAt().isBefore(now)) {
+            item.setLastCommentAt(now);
+        }
+        itemRepository.save(item);
+        return commentMapper.toDto(comment);
+    }
+
+    // gaps between the item's waiting and approved bookings within [from, to); no window means the next 30 days
+    @Override
+    public List<FreeSlotDto> getFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Предмет с id " + itemId + " не найден"));
+        LocalDateTime windowStart = from == null ? requestTime.now() : from;
+        LocalDateTime windowEnd = to == null ? windowStart.plusDays(AVAILABILITY_WINDOW_DAYS) : to;
+        if (!windowStart.isBefore(windowEnd)) {
+            throw new BadRequestException("Начало периода должно быть раньше его конца");
+        }
+        List<FreeSlotDto> slots = new ArrayList<>();
+        if (!item.getAvailable()) {
+            return slots;
+        }
+        LocalDateTime free = windowStart;
+        for (BookingPeriodView taken : bookingRepository.findByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStart(
+                itemId, BookingStatus.HOLDING, windowStart, windowEnd)) {
+            if (taken.getStart().isAfter(free)) {
+                slots.add(new FreeSlotDto(free, taken.getStart()));
+            }
+            if (taken.getEnd().isAfter(free)) {
+                free = taken.getEnd();
+            }
+        }
+        if (free.isBefore(windowEnd)) {
+            slots.add(new FreeSlotDto(free, windowEnd));
+        }
+        return slots;
+    }
+
+    // the latest comments in the order they were written
+    private List<CommentDto> getLatestComments(Long itemId) {
+        List<CommentDto> comments = commentRepository.findLatestWithAuthorByItemId(itemId,
+                        PageRequest.of(0, LATEST_COMMENTS)).stream()
+                .map(commentMapper::toDto)
+                .collect(Collectors.toList());
+        Collections.reverse(comments);
+        return comments;
     }
 
     private BookingItemDto toBookingItemDto(BookingView view) {
@@ -138,6 +290,14 @@ public class ItemServiceImpl implements ItemService {
         return bookingItemDto;
     }
 
+    private BookingItemDto toBookingItemDto(ItemBookingView view) {
+        return new BookingItemDto(view.getId(), view.getBookerId());
+    }
+
+    private static String bookingTag(BookingItemDto booking) {
+        return booking == null ? "-" : String.valueOf(booking.getId());
+    }
+
     private void checkItemExists(Long itemId) {
         itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Предмет с id " + itemId + " не найден"));
     }
@@ -159,12 +319,17 @@ public class ItemServiceImpl implements ItemService {
         if (!checkItemOwner(itemId, userId)) {
             return itemDto;
         }
+        return fillBookings(itemDto, itemId);
+    }
+
+    private ItemDto fillBookings(ItemDto itemDto, Long itemId) {
+        LocalDateTime now = requestTime.now();
         List<BookingView> last = bookingRepository.findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(itemId,
-                LocalDateTime.now(), wrongStatuses);
+                now, wrongStatuses);
         List<BookingView> between = bookingRepository.findByItemIdAndStartIsBeforeAndEndIsAfterAndStatusNotInOrderByEndDesc(itemId,
-                LocalDateTime.now(), LocalDateTime.now(), wrongStatuses);
+                now, now, wrongStatuses);
         List<BookingView> next = bookingRepository.findByItemIdAndStartIsAfterAndStatusNotInOrderByStart(itemId,
-                LocalDateTime.now(), wrongStatuses);
+                now, wrongStatuses);
         if (!last.isEmpty()) {
             itemDto.setLastBooking(toBookingItemDto(last.get(0)));
         }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.request.dto.RequestCreateDto;
 import ru.practicum.shareit.request.model.Request;
 
@@ -10,5 +11,8 @@ import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
 public interface RequestMapper {
     RequestCreateDto toDto(Request request);
 
+    // the requestor is set by the service, version by Hibernate
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Request toRequest(RequestCreateDto createDto);
 }
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Request {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "description")
@@ -28,6 +29,16 @@ public class Request {
     @Column(name = "created")
     private LocalDateTime created;
 
+    @Version
+    private long version;
+
+    public Request(Long id, String description, User user, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.user = user;
+        this.created = created;
+    }
+
     public Request(String description, LocalDateTime created) {
         this.description = description;
         this.created = created;
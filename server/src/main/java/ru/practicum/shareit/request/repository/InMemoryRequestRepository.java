@@ -0,0 +1,145 @@
+package ru.practicum.shareit.request.repository;
+
+import lombok.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.InMemoryJpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// the RequestRepository of the memory profile. Rows keep the requestor's id and requests are read with the
+// requestor as the users store has it now; requests of a requestor are indexed by id
+@Repository
+@Profile("memory")
+public class InMemoryRequestRepository extends InMemoryJpaRepository<Request> implements RequestRepository {
+    private static final Comparator<Row> NEWEST_FIRST = Comparator.comparing(Row::getCreated)
+            .thenComparing(Row::getId)
+            .reversed();
+
+    private final Map<Long, Row> requests = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> requestsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    private final UserRepository userRepository;
+
+    public InMemoryRequestRepository(UserRepository userRepository) {
+        super(Request.class, Request::getId);
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public <S extends Request> S save(S request) {
+        if (request.getId() == null) {
+            request.setId(idGenerator.getAndIncrement());
+            Row row = new Row(request, request.getVersion());
+            requests.put(row.getId(), row);
+            index(requestsByUser, row.getUserId(), row.getId());
+            return request;
+        }
+        requests.compute(request.getId(), (id, row) -> {
+            checkVersion(id, row == null ? null : row.getVersion(), request.getVersion());
+            Row saved = new Row(request, request.getVersion() + 1);
+            if (!saved.getUserId().equals(row.getUserId())) {
+                unindex(requestsByUser, row.getUserId(), id);
+                index(requestsByUser, saved.getUserId(), id);
+            }
+            return saved;
+        });
+        request.setVersion(request.getVersion() + 1);
+        return request;
+    }
+
+    @Override
+    public Optional<Request> findById(Long id) {
+        return Optional.ofNullable(requests.get(id)).map(this::toRequest);
+    }
+
+    @Override
+    public List<Request> findAll() {
+        return requests.values().stream()
+                .sorted(Comparator.comparing(Row::getId))
+                .map(this::toRequest)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return requests.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return requests.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        Row row = requests.remove(id);
+        if (row != null) {
+            unindex(requestsByUser, row.getUserId(), id);
+        }
+    }
+
+    @Override
+    public List<Request> findAllByUser_Id(Long userId) {
+        return ids(requestsByUser, List.of(userId))
+                .sorted()
+                .map(requests::get)
+                .filter(Objects::nonNull)
+                .map(this::toRequest)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<Request> findAllByUser_IdNotOrderByCreatedDesc(Long userId, PageRequest pageRequest) {
+        List<Row> others = requests.values().stream()
+                .filter(row -> !row.getUserId().equals(userId))
+                .sorted(NEWEST_FIRST)
+                .collect(Collectors.toList());
+        List<Request> page = page(others.stream(), pageRequest).stream()
+                .map(this::toRequest)
+                .collect(Collectors.toList());
+        return new PageImpl<>(page, pageRequest, others.size());
+    }
+
+    public boolean hasRequestor(Long userId) {
+        return requestsByUser.containsKey(userId);
+    }
+
+    private Request toRequest(Row row) {
+        Request request = new Request(row.getId(), row.getDescription(),
+                userRepository.findById(row.getUserId()).orElse(null), row.getCreated());
+        request.setVersion(row.getVersion());
+        return request;
+    }
+
+    @Value
+    private static class Row {
+        Long id;
+        String description;
+        Long userId;
+        LocalDateTime created;
+        long version;
+
+        Row(Request request, long version) {
+            this.id = request.getId();
+            this.description = request.getDescription();
+            this.userId = request.getUser().getId();
+            this.created = request.getCreated();
+            this.version = version;
+        }
+    }
+}
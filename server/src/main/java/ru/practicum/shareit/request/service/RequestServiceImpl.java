@@ -1,12 +1,12 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.RequestCreateDto;
@@ -16,8 +16,8 @@ import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestTime;
 
-import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -30,7 +30,8 @@ public class RequestServiceImpl implements RequestService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final RequestMapper mapper;
-    private final ModelMapper modelMapper;
+    private final ItemMapper itemMapper;
+    private final RequestTime requestTime;
 
     @Override
     public RequestCreateDto createRequest(RequestCreateDto createDto, Long userId) {
@@ -43,25 +44,9 @@ public class RequestServiceImpl implements RequestService {
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
         List<Request> requests = requestRepository.findAllByUser_Id(userId);
 
-        Map<Long, List<ItemRequestDto>> itemsByRequestId = itemRepository.findItemsByRequestIdIn(
-                        requests.stream()
-                                .map(Request::getId)
-                                .collect(Collectors.toList())
-                ).stream()
-                .map(item -> modelMapper.map(item, ItemRequestDto.class))
-                .collect(Collectors.groupingBy(ItemRequestDto::getRequestId));
-
-        return requests.stream()
-                .map(request -> new RequestItemsDto(
-                        request.getId(),
-                        request.getDescription(),
-                        request.getCreated(),
-                        itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList())
-                ))
-                .collect(Collectors.toList());
+        return withItems(requests);
     }
 
-
     @Override
     public List<RequestItemsDto> requestsGetAll(Long userId, Long from, Long size) {
         int fromInt = from.intValue();
@@ -71,20 +56,7 @@ public class RequestServiceImpl implements RequestService {
 
         Page<Request> requests = requestRepository.findAllByUser_IdNotOrderByCreatedDesc(userId, PageRequest.of(fromInt, sizeInt));
 
-        return requests.map(request -> {
-            List<Long> requestIds = Collections.singletonList(request.getId());
-            Map<Long, List<ItemRequestDto>> itemsByRequestId = itemRepository.findItemsByRequestIdIn(requestIds).stream()
-                    .map(item -> modelMapper.map(item, ItemRequestDto.class))
-                    .collect(Collectors.groupingBy(ItemRequestDto::getRequestId));
-
-            return new RequestItemsDto(
-                    request.getId(),
-                    request.getDescription(),
-                    request.getCreated(),
-                    itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList())
-            );
-        }).getContent();
-
+        return withItems(requests.getContent());
     }
 
     @Override
@@ -98,16 +70,39 @@ public class RequestServiceImpl implements RequestService {
                 request.getId(),
                 request.getDescription(),
                 request.getCreated(),
-                List.of(modelMapper.map(item, ItemRequestDto.class))
+                List.of(itemMapper.toRequestDto(item))
         );
     }
 
 
+    // one items query for the whole list instead of one per request
+    private List<RequestItemsDto> withItems(List<Request> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<ItemRequestDto>> itemsByRequestId = itemRepository.findItemsByRequestIdIn(
+                        requests.stream()
+                                .map(Request::getId)
+                                .collect(Collectors.toList())
+                ).stream()
+                .map(itemMapper::toRequestDto)
+                .collect(Collectors.groupingBy(ItemRequestDto::getRequestId));
+
+        return requests.stream()
+                .map(request -> new RequestItemsDto(
+                        request.getId(),
+                        request.getDescription(),
+                        request.getCreated(),
+                        itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList())
+                ))
+                .collect(Collectors.toList());
+    }
+
     private Request addRequest(RequestCreateDto createDto, Long userId) {
         Request request = mapper.toRequest(createDto);
         User requestor = userRepository.findById(userId).orElseThrow();
         request.setUser(requestor);
-        request.setCreated(LocalDateTime.now());
+        request.setCreated(requestTime.now());
         return requestRepository.save(request);
     }
 }
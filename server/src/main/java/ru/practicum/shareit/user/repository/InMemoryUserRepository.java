@@ -1,71 +1,171 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.InMemoryJpaRepository;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// behaves like UserRepository over the users table: ids from a sequence, unique non-null emails, listing by id.
+// Emails are indexed to their owner's id, so the uniqueness check is a single putIfAbsent instead of a scan, and
+// two requests for one email cannot both win. Stored users are copies, callers never share them.
+// The UserRepository of the memory profile
 @Repository
-public class InMemoryUserRepository {
-    private final Map<Long, User> users = new HashMap<>();
-    protected static Long idGenerator = 1L;
-
+@Profile("memory")
+public class InMemoryUserRepository extends InMemoryJpaRepository<User> implements UserRepository {
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    // the foreign keys to users: a user still referenced is not deleted
+    private volatile Predicate<Long> referenced = id -> false;
+
+    public InMemoryUserRepository() {
+        super(User.class, User::getId);
+    }
 
     public User add(User user) {
-        if (checkEmailNotExist(user)) {
+        long id = idGenerator.getAndIncrement();
+        if (!reserveEmail(user.getEmail(), id)) {
             throw new BadRequestException("Емайл уже используется");
         }
-        user.setId(idGenerator++);
-        users.put(user.getId(), user);
+        user.setId(id);
+        users.put(id, copy(user));
         return user;
     }
 
 
     public List<User> getAll() {
-        return new ArrayList<>(users.values());
+        return findAll();
     }
 
 
     public User update(User user) {
-        if (!users.containsKey(user.getId())) {
+        // per user the update runs inside compute, so concurrent changes of one user do not interleave
+        User updatedUser = users.computeIfPresent(user.getId(), (id, savedUser) -> {
+            if (!changeEmail(savedUser.getEmail(), user.getEmail(), id)) {
+                throw new BadRequestException("Емайл уже используется");
+            }
+            return checkUpdatesAndUpdateUser(user, copy(savedUser));
+        });
+        if (updatedUser == null) {
             throw new NotFoundException("Пользователь с id " + user.getId() + " не найден");
         }
-        if (checkEmailNotExist(user)) {
-            throw new BadRequestException("Емайл уже используется");
-        }
-        User savedUser = users.get(user.getId());
-        User updatedUser = checkUpdatesAndUpdateUser(user, savedUser);
-        users.put(updatedUser.getId(), updatedUser);
-        return updatedUser;
+        return copy(updatedUser);
     }
 
     public User getById(Long id) {
-        if (!users.containsKey(id)) {
-            throw new NotFoundException("Пользователь с id " + id + " не найден");
+        return findById(id).orElseThrow(() -> new NotFoundException("Пользователь с id " + id + " не найден"));
+    }
+
+    // a taken email fails like the unique constraint of the column, a stale version like @Version
+    @Override
+    public <S extends User> S save(S user) {
+        if (user.getId() == null) {
+            long id = idGenerator.getAndIncrement();
+            if (!reserveEmail(user.getEmail(), id)) {
+                throw new DataIntegrityViolationException("Емайл уже используется");
+            }
+            user.setId(id);
+            users.put(id, copy(user));
+            return user;
         }
-        return users.get(id);
+        users.compute(user.getId(), (id, savedUser) -> {
+            checkVersion(id, savedUser == null ? null : savedUser.getVersion(), user.getVersion());
+            if (!changeEmail(savedUser.getEmail(), user.getEmail(), id)) {
+                throw new DataIntegrityViolationException("Емайл уже используется");
+            }
+            User stored = copy(user);
+            stored.setVersion(user.getVersion() + 1);
+            return stored;
+        });
+        user.setVersion(user.getVersion() + 1);
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(users.get(id)).map(this::copy);
     }
 
+    @Override
+    public List<User> findAll() {
+        return users.values().stream()
+                .sorted(Comparator.comparing(User::getId))
+                .map(this::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return Optional.ofNullable(users.get(id)).map(User::getVersion);
+    }
 
+    @Override
+    public boolean existsById(Long id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return users.size();
+    }
+
+    @Override
     public void deleteById(Long id) {
-        if (!users.containsKey(id)) {
+        if (referenced.test(id)) {
+            throw new DataIntegrityViolationException("Пользователь с id " + id + " используется");
+        }
+        User user = users.remove(id);
+        if (user == null) {
             throw new NotFoundException("Пользователь с id " + id + " не найден");
         }
-        users.remove(id);
+        if (user.getEmail() != null) {
+            emails.remove(user.getEmail(), id);
+        }
+    }
+
+    public void setReferenced(Predicate<Long> referenced) {
+        this.referenced = referenced;
+    }
+
+    // like the unique column, null emails are not indexed and may repeat
+    private boolean reserveEmail(String email, Long id) {
+        if (email == null) {
+            return true;
+        }
+        Long owner = emails.putIfAbsent(email, id);
+        return owner == null || owner.equals(id);
+    }
+
+    private boolean changeEmail(String oldEmail, String newEmail, Long id) {
+        if (newEmail == null || newEmail.equals(oldEmail)) {
+            return true;
+        }
+        if (!reserveEmail(newEmail, id)) {
+            return false;
+        }
+        if (oldEmail != null) {
+            emails.remove(oldEmail, id);
+        }
+        return true;
     }
 
-    private boolean checkEmailNotExist(User userForCheck) {
-        boolean check = users.values().stream()
-                .noneMatch(user -> user.getEmail().equals(userForCheck.getEmail()));
-        return !check;
+    private User copy(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail(), user.getVersion());
     }
 
-    public User checkUpdatesAndUpdateUser(User user, User updatedUser) {
+    public static User checkUpdatesAndUpdateUser(User user, User updatedUser) {
         String name = user.getName();
         String email = user.getEmail();
 
@@ -79,7 +179,8 @@ public class InMemoryUserRepository {
     }
 
     public void removeAll() {
-        idGenerator = 1L;
         users.clear();
+        emails.clear();
+        idGenerator.set(1);
     }
 }
@@ -13,5 +13,7 @@ public interface UserService {
 
     UserDto getUserById(Long id);
 
+    String getUserTag(Long id);
+
     void deleteUserById(Long id);
 }
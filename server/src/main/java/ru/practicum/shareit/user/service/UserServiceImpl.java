@@ -16,7 +16,6 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
-    private final InMemoryUserRepository memoryUserRepository;
     private final UserMapper mapper;
 
     @Override
@@ -35,7 +34,7 @@ public class UserServiceImpl implements UserService {
         final User user = mapper.toUser(userDto);
         user.setId(id);
         User savedUser = userRepository.getReferenceById(id);
-        User updateUser = memoryUserRepository.checkUpdatesAndUpdateUser(user, savedUser);
+        User updateUser = InMemoryUserRepository.checkUpdatesAndUpdateUser(user, savedUser);
         return mapper.toDto(userRepository.save(updateUser));
     }
 
@@ -50,6 +49,13 @@ public class UserServiceImpl implements UserService {
 
     }
 
+    @Override
+    public String getUserTag(Long id) {
+        return userRepository.findVersionById(id)
+                .map(version -> "u" + id + "." + version)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id " + id + " не найден"));
+    }
+
     @Override
     public void deleteUserById(Long id) {
         userRepository.deleteById(id);
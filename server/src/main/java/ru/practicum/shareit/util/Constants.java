@@ -2,5 +2,6 @@ package ru.practicum.shareit.util;
 
 public class Constants {
     public static final String USER_HEADER_ID = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
 }
@@ -0,0 +1,332 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// the part of JpaRepository every in-memory store answers the same way, on top of the store's findById, findAll,
+// save and deleteById. Writes take effect at once: flush does nothing and a rolled back transaction keeps them.
+// Sorted queries and queries by example filter and sort findAll with InMemoryQueries
+public abstract class InMemoryJpaRepository<T> implements JpaRepository<T, Long> {
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final Class<T> type;
+    private final Function<T, Long> id;
+
+    protected InMemoryJpaRepository(Class<T> type, Function<T, Long> id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return sorted(findAll().stream(), sort);
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return pageOf(findAll().stream(), pageable);
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<Long> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .distinct()
+                .map(this::findById)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        return StreamSupport.stream(entities.spliterator(), false)
+                .map(this::save)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public long count() {
+        return findAll().size();
+    }
+
+    @Override
+    public void delete(T entity) {
+        Long entityId = id.apply(entity);
+        if (entityId != null && existsById(entityId)) {
+            deleteById(entityId);
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        deleteAll(findAll());
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public T getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public T getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    // a JPA reference fails on first use when the row is missing, this one right away
+    @Override
+    public T getReferenceById(Long id) {
+        return findById(id).orElseThrow(() ->
+                new EntityNotFoundException("Unable to find " + type.getName() + " with id " + id));
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return Optional.ofNullable(findBy(example, FetchableFluentQuery::oneValue));
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return matching(example).collect(Collectors.toList());
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return sorted(matching(example), sort);
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return pageOf(matching(example), pageable);
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return matching(example).count();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return matching(example).findAny().isPresent();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new ExampleQuery<>(example, example.getProbeType(), Sort.unsorted()));
+    }
+
+    // what @Version does on update: the row must still be there, with the version the entity was read with
+    protected void checkVersion(Long id, Long stored, long read) {
+        if (stored == null || stored != read) {
+            throw new ObjectOptimisticLockingFailureException(type, id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S extends T> Stream<S> matching(Example<S> example) {
+        return findAll().stream()
+                .filter(InMemoryQueries.matching(example))
+                .map(entity -> (S) entity);
+    }
+
+    private <S extends T> List<S> sorted(Stream<S> rows, Sort sort) {
+        return rows.sorted(InMemoryQueries.comparator(type, sort)).collect(Collectors.toList());
+    }
+
+    private <S extends T> Page<S> pageOf(Stream<S> rows, Pageable pageable) {
+        List<S> all = sorted(rows, pageable.getSort());
+        return PageableExecutionUtils.getPage(page(all.stream(), pageable), pageable, all::size);
+    }
+
+    protected static <E> List<E> page(Stream<E> rows, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return rows.collect(Collectors.toList());
+        }
+        return rows.skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    protected static Stream<Long> ids(Map<Long, Set<Long>> index, Collection<Long> keys) {
+        return keys.stream()
+                .distinct()
+                .map(index::get)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream);
+    }
+
+    // both run inside compute, so removing the last id of a key cannot drop an id added at the same time
+    protected static void index(Map<Long, Set<Long>> index, Long key, Long id) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, ids) -> {
+            Set<Long> result = ids == null ? new ConcurrentSkipListSet<>() : ids;
+            result.add(id);
+            return result;
+        });
+    }
+
+    protected static void unindex(Map<Long, Set<Long>> index, Long key, Long id) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // findBy of JPA over the same matching: the sort applies to every terminal operation and a page adds only its
+    // offset and size. Interfaces are projected with a proxy, other types go through the conversion service.
+    // project only picks a fetch graph in JPA, so whole entities come back here as they do there
+    private class ExampleQuery<S extends T, R> implements FetchableFluentQuery<R> {
+        private final Example<S> example;
+        private final Class<R> resultType;
+        private final Sort sort;
+
+        ExampleQuery(Example<S> example, Class<R> resultType, Sort sort) {
+            this.example = example;
+            this.resultType = resultType;
+            this.sort = sort;
+        }
+
+        @Override
+        public FetchableFluentQuery<R> sortBy(Sort sort) {
+            return new ExampleQuery<>(example, resultType, this.sort.and(sort));
+        }
+
+        @Override
+        public <N> FetchableFluentQuery<N> as(Class<N> resultType) {
+            return new ExampleQuery<>(example, resultType, sort);
+        }
+
+        @Override
+        public FetchableFluentQuery<R> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public R oneValue() {
+            List<R> results = all();
+            if (results.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1);
+            }
+            return results.isEmpty() ? null : results.get(0);
+        }
+
+        @Override
+        public R firstValue() {
+            return stream().findFirst().orElse(null);
+        }
+
+        @Override
+        public List<R> all() {
+            return stream().collect(Collectors.toList());
+        }
+
+        @Override
+        public Page<R> page(Pageable pageable) {
+            List<R> all = all();
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(all);
+            }
+            return PageableExecutionUtils.getPage(InMemoryJpaRepository.page(all.stream(), pageable), pageable,
+                    all::size);
+        }
+
+        @Override
+        public Stream<R> stream() {
+            return sorted(matching(example), sort).stream().map(this::convert);
+        }
+
+        @Override
+        public long count() {
+            return InMemoryJpaRepository.this.count(example);
+        }
+
+        @Override
+        public boolean exists() {
+            return InMemoryJpaRepository.this.exists(example);
+        }
+
+        @SuppressWarnings("unchecked")
+        private R convert(S entity) {
+            if (resultType.isInstance(entity)) {
+                return (R) entity;
+            }
+            if (resultType.isInterface()) {
+                return PROJECTIONS.createProjection(resultType, entity);
+            }
+            return DefaultConversionService.getSharedInstance().convert(entity, resultType);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.Embeddable;
+import javax.persistence.Embedded;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import javax.persistence.Transient;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// sorting and query by example over entities read from the in-memory stores, with the semantics Spring Data JPA
+// gives them: Sort properties are entity paths, a probe matches on every persistent field it has a value for
+final class InMemoryQueries {
+    private static final Map<Class<?>, List<Field>> PERSISTENT_FIELDS = new ConcurrentHashMap<>();
+
+    private InMemoryQueries() {
+    }
+
+    // an unknown property fails with PropertyReferenceException, as it does in JPA. Nulls of an order with native
+    // handling sort as PostgreSQL puts them: last when ascending, first when descending
+    static <E> Comparator<E> comparator(Class<E> type, Sort sort) {
+        Comparator<E> result = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            List<String> path = PropertyPath.from(order.getProperty(), type).stream()
+                    .map(PropertyPath::getSegment)
+                    .collect(Collectors.toList());
+            Comparator<Object> values = order.isIgnoreCase() ? InMemoryQueries::compareIgnoringCase
+                    : InMemoryQueries::compare;
+            if (order.isDescending()) {
+                values = values.reversed();
+            }
+            boolean nullsFirst = order.getNullHandling() == Sort.NullHandling.NULLS_FIRST
+                    || order.getNullHandling() == Sort.NullHandling.NATIVE && order.isDescending();
+            Comparator<Object> withNulls = nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+            result = result.thenComparing(entity -> read(entity, path), withNulls);
+        }
+        return result;
+    }
+
+    // what QueryByExamplePredicateBuilder makes of the example: ignored paths are skipped, a null value only counts
+    // with NullHandler.INCLUDE, associations are joined and matched field by field and strings follow the matcher
+    // of their path. Primitive fields always have a value, so a probe's version takes part unless ignored
+    static Predicate<Object> matching(Example<?> example) {
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        List<Predicate<Object>> predicates = new ArrayList<>();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        visited.add(example.getProbe());
+        collect(predicates, "", entity -> entity, example.getProbe(), accessor, visited);
+        Class<?> probeType = example.getProbeType();
+        Predicate<Object> all = example.getMatcher().isAllMatching()
+                ? predicates.stream().reduce(entity -> true, Predicate::and)
+                : predicates.isEmpty() ? entity -> true : predicates.stream().reduce(entity -> false, Predicate::or);
+        return entity -> probeType.isInstance(entity) && all.test(entity);
+    }
+
+    private static void collect(List<Predicate<Object>> predicates,
+                                String path,
+                                Function<Object, Object> owner,
+                                Object probe,
+                                ExampleMatcherAccessor accessor,
+                                Set<Object> visited) {
+        for (Field field : persistentFields(probe.getClass())) {
+            String fieldPath = path.isEmpty() ? field.getName() : path + "." + field.getName();
+            if (accessor.isIgnoredPath(fieldPath)) {
+                continue;
+            }
+            Function<Object, Object> value = entity -> {
+                Object parent = owner.apply(entity);
+                return parent == null ? null : ReflectionUtils.getField(field, parent);
+            };
+            Optional<Object> probed = accessor.getValueTransformerForPath(fieldPath)
+                    .apply(Optional.ofNullable(ReflectionUtils.getField(field, probe)));
+            if (probed.isEmpty()) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    predicates.add(entity -> value.apply(entity) == null);
+                }
+                continue;
+            }
+            Object expected = probed.get();
+            if (isNested(field)) {
+                if (!visited.add(expected)) {
+                    throw new InvalidDataAccessApiUsageException(String.format(
+                            "Path '%s' from root %s must not span a cyclic property reference", fieldPath,
+                            probe.getClass().getSimpleName()));
+                }
+                // an inner join: a row without the association does not match
+                predicates.add(entity -> value.apply(entity) != null);
+                collect(predicates, fieldPath, value, expected, accessor, visited);
+                visited.remove(expected);
+            } else if (field.getType() == String.class) {
+                predicates.add(matchingString(fieldPath, value, expected.toString(), accessor));
+            } else {
+                predicates.add(entity -> expected.equals(value.apply(entity)));
+            }
+        }
+    }
+
+    private static Predicate<Object> matchingString(String path,
+                                                    Function<Object, Object> value,
+                                                    String expected,
+                                                    ExampleMatcherAccessor accessor) {
+        boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+        String probed = ignoreCase ? expected.toLowerCase(Locale.ROOT) : expected;
+        Predicate<String> matcher;
+        switch (accessor.getStringMatcherForPath(path)) {
+            case DEFAULT:
+            case EXACT:
+                matcher = probed::equals;
+                break;
+            case CONTAINING:
+                matcher = actual -> actual.contains(probed);
+                break;
+            case STARTING:
+                matcher = actual -> actual.startsWith(probed);
+                break;
+            case ENDING:
+                matcher = actual -> actual.endsWith(probed);
+                break;
+            default:
+                // JPA has no regular expressions either
+                throw new IllegalArgumentException("Unsupported StringMatcher "
+                        + accessor.getStringMatcherForPath(path));
+        }
+        return entity -> {
+            Object actual = value.apply(entity);
+            return actual != null && matcher.test(ignoreCase ? actual.toString().toLowerCase(Locale.ROOT)
+                    : actual.toString());
+        };
+    }
+
+    private static Object read(Object entity, List<String> path) {
+        Object current = entity;
+        for (String property : path) {
+            if (current == null) {
+                return null;
+            }
+            current = ReflectionUtils.getField(field(current.getClass(), property), current);
+        }
+        return current;
+    }
+
+    // an association sorts by its id, which is what ordering by the joined entity compiles to
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right) {
+        if (isEntity(left.getClass())) {
+            return compare(id(left), id(right));
+        }
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private static int compareIgnoringCase(Object left, Object right) {
+        if (left instanceof String && right instanceof String) {
+            return ((String) left).toLowerCase(Locale.ROOT).compareTo(((String) right).toLowerCase(Locale.ROOT));
+        }
+        return compare(left, right);
+    }
+
+    private static Object id(Object entity) {
+        return persistentFields(entity.getClass()).stream()
+                .filter(field -> field.isAnnotationPresent(Id.class))
+                .findFirst()
+                .map(field -> ReflectionUtils.getField(field, entity))
+                .orElseThrow(() -> new IllegalArgumentException(entity.getClass().getName() + " has no @Id field"));
+    }
+
+    private static Field field(Class<?> type, String name) {
+        return persistentFields(type).stream()
+                .filter(field -> field.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(type.getName() + " has no field " + name));
+    }
+
+    // the singular attributes of the JPA metamodel: no statics, transients or collections
+    private static List<Field> persistentFields(Class<?> type) {
+        return PERSISTENT_FIELDS.computeIfAbsent(type, key -> {
+            List<Field> fields = new ArrayList<>();
+            ReflectionUtils.doWithFields(key, field -> {
+                ReflectionUtils.makeAccessible(field);
+                fields.add(field);
+            }, field -> !Modifier.isStatic(field.getModifiers())
+                    && !Modifier.isTransient(field.getModifiers())
+                    && !field.isAnnotationPresent(Transient.class)
+                    && !Collection.class.isAssignableFrom(field.getType())
+                    && !Map.class.isAssignableFrom(field.getType()));
+            return List.copyOf(fields);
+        });
+    }
+
+    private static boolean isNested(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class)
+                || field.isAnnotationPresent(Embedded.class) || isEntity(field.getType())
+                || field.getType().isAnnotationPresent(Embeddable.class);
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        return type.isAnnotationPresent(Entity.class);
+    }
+}
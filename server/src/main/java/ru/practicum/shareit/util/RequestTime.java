@@ -0,0 +1,33 @@
+package ru.practicum.shareit.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+// the current time, read from the clock once per HTTP request: every service call serving one request sorts
+// bookings into past, current and future against the same instant, so an item's ETag and the body it stands for
+// cannot disagree about a booking that ends in between. Outside a request every call reads the clock
+@Component
+@RequiredArgsConstructor
+public class RequestTime {
+    private static final String ATTRIBUTE = RequestTime.class.getName();
+
+    private final Clock clock;
+
+    public LocalDateTime now() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return LocalDateTime.now(clock);
+        }
+        LocalDateTime now = (LocalDateTime) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (now == null) {
+            now = LocalDateTime.now(clock);
+            attributes.setAttribute(ATTRIBUTE, now, RequestAttributes.SCOPE_REQUEST);
+        }
+        return now;
+    }
+}
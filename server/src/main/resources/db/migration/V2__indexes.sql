@@ -0,0 +1,22 @@
+-- BookingRepository: findBookingByBookerId*OrderByStartDesc, seek*ByBooker
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+-- BookingRepository: findBookingByBookerIdAndStatusOrderByStartDesc, seekByBookerAndStatus
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+-- BookingRepository: owner listings join items by owner_id, then bookings by item_id
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+-- BookingRepository: next booking per item, findNextBookingsByItemIdIn
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+-- BookingRepository: last booking per item, findLastBookingsByItemIdIn, comment eligibility check
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings (item_id, status, end_date);
+
+-- ItemRepository: findItemsByOwnerIdOrderById
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+-- ItemRepository: findItemsByRequestIdIn, findItemByRequestId
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- CommentRepository: findCommentByItemIdOrderById, findCommentsWithAuthorByItemIdIn
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id, id);
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments (author_id);
+
+-- RequestRepository: findAllByUser_Id, findAllByUser_IdNotOrderByCreatedDesc
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
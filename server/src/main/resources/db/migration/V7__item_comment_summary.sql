@@ -0,0 +1,6 @@
+-- kept by ItemServiceImpl.addComment, so item pages show the number of comments without counting them
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_comment_at TIMESTAMP WITHOUT TIME ZONE;
+
+UPDATE items SET comment_count = (SELECT count(*) FROM comments c WHERE c.item_id = items.id),
+                 last_comment_at = (SELECT max(c.created) FROM comments c WHERE c.item_id = items.id);
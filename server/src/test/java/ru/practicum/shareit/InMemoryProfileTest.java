@@ -0,0 +1,238 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.InMemoryBookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.model.CommentText;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.InMemoryCommentRepository;
+import ru.practicum.shareit.item.repository.InMemoryItemRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.repository.InMemoryRequestRepository;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.InMemoryUserRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// the services on the in-memory stores, without a database. The context is shared by the tests, so every test
+// works with users and items of its own
+@SpringBootTest
+@ActiveProfiles("memory")
+class InMemoryProfileTest {
+    private static final int THREADS = 8;
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+
+    private ExecutorService executor;
+    private Long owner;
+    private Long item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        owner = addUser("owner");
+        item = itemService.addItem(new ItemRequestDto(null, "drill", "description", true, null), owner).getId();
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void repositoriesAreTheInMemoryStores() {
+        assertEquals(0, context.getBeanNamesForType(DataSource.class).length);
+        assertInstanceOf(InMemoryUserRepository.class, userRepository);
+        assertInstanceOf(InMemoryItemRepository.class, itemRepository);
+        assertInstanceOf(InMemoryBookingRepository.class, bookingRepository);
+        assertInstanceOf(InMemoryCommentRepository.class, commentRepository);
+        assertInstanceOf(InMemoryRequestRepository.class, requestRepository);
+    }
+
+    @Test
+    void onlyOneOfOverlappingRequestsIsCreated() throws Exception {
+        List<Long> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(addUser("booker"));
+        }
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        race(bookers.stream().map(booker -> (Callable<Void>) () -> {
+            try {
+                bookingService.addBooking(new BookingCreateDto(null, start, start.plusHours(2), item), booker);
+                created.incrementAndGet();
+            } catch (BadRequestException e) {
+                refused.incrementAndGet();
+            }
+            return null;
+        }).collect(Collectors.toList()));
+
+        assertEquals(1, created.get());
+        assertEquals(THREADS - 1, refused.get());
+        assertEquals(1, bookingService.getAllByOwnerId(owner, "ALL", 0L, 10L).size());
+    }
+
+    @Test
+    void onlyOneOfOverlappingRequestsIsApproved() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ids.add(book(addUser("booker"), start.plusMinutes(i), start.plusHours(2).plusMinutes(i)));
+        }
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        race(ids.stream().map(id -> (Callable<Void>) () -> {
+            try {
+                bookingService.setApprove(owner, true, id);
+                approved.incrementAndGet();
+            } catch (BadRequestException | ConcurrencyFailureException e) {
+                refused.incrementAndGet();
+            }
+            return null;
+        }).collect(Collectors.toList()));
+
+        assertEquals(1, approved.get());
+        assertEquals(THREADS - 1, refused.get());
+        List<Booking> bookings = bookingRepository.findAllById(ids);
+        assertEquals(1, bookings.stream().filter(b -> b.getStatus() == BookingStatus.APPROVED).count());
+        // the rejections were saved, not only changed on the copies the store handed out
+        assertEquals(THREADS - 1, bookings.stream().filter(b -> b.getStatus() == BookingStatus.REJECTED).count());
+    }
+
+    @Test
+    void saveOfStaleCopyIsAConflict() {
+        Long id = book(addUser("booker"), start, start.plusHours(2));
+        Booking stale = bookingRepository.findById(id).orElseThrow();
+        bookingService.setApprove(owner, false, id);
+
+        stale.setStatus(BookingStatus.APPROVED);
+        assertThrows(ConcurrencyFailureException.class, () -> bookingRepository.save(stale));
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void commentShowsRenamedAuthor() {
+        Long booker = addUser("booker");
+        LocalDateTime past = LocalDateTime.now().minusDays(3);
+        bookingRepository.save(new Booking(null, past, past.plusDays(1), itemRepository.findById(item).orElseThrow(),
+                userRepository.findById(booker).orElseThrow(), BookingStatus.APPROVED));
+
+        itemService.addComment(booker, item, new CommentText("works"));
+        userService.updateUser(new UserDto(null, "renamed", null), booker);
+
+        ItemDto found = itemService.getItemById(owner, item);
+        List<CommentDto> comments = found.getComments();
+        assertEquals(1, comments.size());
+        assertEquals("renamed", comments.get(0).getAuthorName());
+        assertEquals(1, itemRepository.findById(item).orElseThrow().getCommentCount());
+        List<CommentDto> listed = itemService.getAllUserItems(owner).get(0).getComments();
+        assertEquals(1, listed.size());
+        assertEquals("renamed", listed.get(0).getAuthorName());
+    }
+
+    @Test
+    void referencedUserIsNotDeleted() {
+        Long booker = addUser("booker");
+        book(booker, start, start.plusHours(2));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.deleteUserById(owner));
+        assertThrows(DataIntegrityViolationException.class, () -> userService.deleteUserById(booker));
+        Long unused = addUser("unused");
+        userService.deleteUserById(unused);
+        assertEquals(List.of(owner, booker), userRepository.findAllById(List.of(owner, booker, unused)).stream()
+                .map(User::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private Long addUser(String name) {
+        int n = USERS.incrementAndGet();
+        return userService.addUser(new UserDto(null, name + " " + n, "user" + n + "@mail.com")).getId();
+    }
+
+    private Long book(Long booker, LocalDateTime from, LocalDateTime to) {
+        Item booked = itemRepository.findById(item).orElseThrow();
+        User user = userRepository.findById(booker).orElseThrow();
+        return bookingRepository.save(new Booking(null, from, to, booked, user, BookingStatus.WAITING)).getId();
+    }
+
+    // all tasks are released together and must finish; an unexpected exception fails the test
+    private void race(List<Callable<Void>> tasks) throws InterruptedException, ExecutionException {
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return task.call();
+            }));
+        }
+        ready.countDown();
+        for (Future<Void> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                throw new AssertionError("Call did not finish", e);
+            }
+        }
+    }
+}
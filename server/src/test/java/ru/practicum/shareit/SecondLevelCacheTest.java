@@ -0,0 +1,88 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapperImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// every repository call commits on its own, as it does behind the controllers, so the cache sees committed data
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({UserServiceImpl.class, UserMapperImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void userAndItemLookupsByIdSkipTheDatabase() {
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        Item item = itemRepository.save(new Item(null, "drill", "description", true, owner, null));
+        statistics.clear();
+
+        assertEquals("owner", userRepository.findById(owner.getId()).orElseThrow().getName());
+        assertEquals("drill", itemRepository.findById(item.getId()).orElseThrow().getName());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("users").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("items").getHitCount());
+    }
+
+    @Test
+    void updatedUserIsServedFromCache() {
+        User user = userRepository.save(new User(null, "name", "name@mail.com"));
+        UserDto update = new UserDto();
+        update.setName("renamed");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                userService.updateUser(update, user.getId()));
+        statistics.clear();
+
+        assertEquals("renamed", userRepository.findById(user.getId()).orElseThrow().getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deletedUserIsNotServedFromCache() {
+        User user = userRepository.save(new User(null, "name", "name@mail.com"));
+        userService.deleteUserById(user.getId());
+
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+    }
+}
@@ -4,14 +4,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.Constants;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -20,6 +24,8 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -86,6 +92,17 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("APPROVED"));
     }
 
+    @Test
+    public void testSetApprove_ConcurrentChangeIsConflict() throws Exception {
+        when(bookingService.setApprove(123L, true, 1L)).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        mockMvc.perform(patch("/bookings/{bookingId}", 1L)
+                        .header("X-Sharer-User-Id", 123L)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
     @Test
     public void testGetBookingById_Success() throws Exception {
         Long userId = 123L;
@@ -100,6 +117,33 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.id").value(bookingId));
     }
 
+    @Test
+    public void testGetBookingById_SendsETag() throws Exception {
+        BookingDto booking = new BookingDto();
+        booking.setId(1L);
+        when(bookingService.getBookingTag(123L, 1L)).thenReturn("b1.0.0.0");
+        when(bookingService.getById(123L, 1L)).thenReturn(booking);
+
+        mockMvc.perform(get("/bookings/{bookingId}", 1L)
+                        .header("X-Sharer-User-Id", 123L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"b1.0.0.0\""))
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
+    @Test
+    public void testGetBookingById_NotModified() throws Exception {
+        when(bookingService.getBookingTag(123L, 1L)).thenReturn("b1.1.0.0");
+
+        mockMvc.perform(get("/bookings/{bookingId}", 1L)
+                        .header("X-Sharer-User-Id", 123L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"b1.1.0.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"b1.1.0.0\""))
+                .andExpect(content().string(""));
+        verify(bookingService, never()).getById(any(), any());
+    }
+
     @Test
     public void testGetAllByUserId_Success() throws Exception {
         Long userId = 123L;
@@ -144,4 +188,36 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L));
     }
 
+    @Test
+    public void testGetAllByUserId_FullPageReturnsNextCursor() throws Exception {
+        Long userId = 123L;
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        String cursor = new BookingCursor(start.plusDays(1), 9L).encode();
+        BookingDto booking = new BookingDto();
+        booking.setId(4L);
+        booking.setStart(start);
+
+        when(bookingService.getAllByUserIdAfter(userId, "ALL", cursor, 1L)).thenReturn(List.of(booking));
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("cursor", cursor)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, new BookingCursor(start, 4L).encode()));
+    }
+
+    @Test
+    public void testGetAllByOwnerId_PartialPageHasNoNextCursor() throws Exception {
+        Long ownerId = 123L;
+        BookingDto booking = new BookingDto();
+        booking.setId(1L);
+
+        when(bookingService.getAllByOwnerId(ownerId, "ALL", 0L, 10L)).thenReturn(List.of(booking));
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(Constants.NEXT_CURSOR_HEADER));
+    }
+
 }
\ No newline at end of file
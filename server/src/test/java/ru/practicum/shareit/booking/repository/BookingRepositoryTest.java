@@ -7,19 +7,28 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriodView;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersionView;
 import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class BookingRepositoryTest {
@@ -31,11 +40,11 @@ class BookingRepositoryTest {
     @Autowired
     private UserRepository userRepository;
     List<BookingStatus> wrongStatuses = List.of(BookingStatus.WAITING, BookingStatus.REJECTED, BookingStatus.CANCELED);
-    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 
     @Test
     @DirtiesContext
-    void findBookingByBookerIdOrderByStartDesc() {
+    void findBookingByBookerIdOrderByStartDescIdDesc() {
         LocalDateTime now2 = now.plusHours(1);
         User user = new User();
         userRepository.save(user);
@@ -49,7 +58,7 @@ class BookingRepositoryTest {
         booking2.setStart(now2);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdOrderByStartDesc(user.getId(), pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(user.getId(), pageable);
 
         assertEquals(2, bookings.size());
         assertEquals(booking2, bookings.get(0));
@@ -72,15 +81,15 @@ class BookingRepositoryTest {
         booking2.setStart(now2);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdOrderByStartDesc(3L, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(3L, pageable);
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
 
-        bookings = bookingRepository.findBookingByBookerIdOrderByStartDesc(-13L, pageable);
+        bookings = bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(-13L, pageable);
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
 
-        bookings = bookingRepository.findBookingByBookerIdOrderByStartDesc(0L, pageable);
+        bookings = bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(0L, pageable);
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
     }
@@ -89,7 +98,7 @@ class BookingRepositoryTest {
     @DirtiesContext
     void findBookingByBookerIdEmpty() {
         Pageable pageable = PageRequest.of(0, 2);
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdOrderByStartDesc(1L, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(1L, pageable);
 
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
@@ -97,7 +106,7 @@ class BookingRepositoryTest {
 
     @Test
     @DirtiesContext
-    void findBookingByBookerIdAndStartAfterOrderByStartDesc() {
+    void findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc() {
         LocalDateTime now2 = now.plusHours(2);
         LocalDateTime now3 = now.plusHours(3);
 
@@ -112,7 +121,7 @@ class BookingRepositoryTest {
         booking2.setBooker(user);
         booking2.setStart(now3);
         bookingRepository.save(booking2);
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDesc(user.getId(), now, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(user.getId(), now, pageable);
 
         assertEquals(2, bookings.size());
         assertEquals(booking2, bookings.get(0));
@@ -120,7 +129,7 @@ class BookingRepositoryTest {
 
         booking.setStart(now.minusHours(1));
         booking2.setStart(now.minusHours(2));
-        bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDesc(user.getId(), now, pageable);
+        bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(user.getId(), now, pageable);
 
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
@@ -143,15 +152,15 @@ class BookingRepositoryTest {
         booking2.setStart(now2);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDesc(3L, LocalDateTime.now(), pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(3L, LocalDateTime.now(), pageable);
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
 
-        bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDesc(-13L, LocalDateTime.now(), pageable);
+        bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(-13L, LocalDateTime.now(), pageable);
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
 
-        bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDesc(0L, LocalDateTime.now(), pageable);
+        bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(0L, LocalDateTime.now(), pageable);
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
     }
@@ -160,7 +169,7 @@ class BookingRepositoryTest {
     @DirtiesContext
     void findBookingByBookerIdStartAfterReturnEmpty() {
         Pageable pageable = PageRequest.of(0, 2);
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDesc(1L, LocalDateTime.now(), pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(1L, LocalDateTime.now(), pageable);
 
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
@@ -181,23 +190,23 @@ class BookingRepositoryTest {
         booking2.setBooker(user);
         booking2.setStatus(BookingStatus.APPROVED);
         bookingRepository.save(booking2);
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(user.getId(), BookingStatus.REJECTED, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(user.getId(), BookingStatus.REJECTED, pageable);
 
         assertEquals(1, bookings.size());
         assertEquals(booking, bookings.get(0));
 
-        bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(user.getId(), BookingStatus.APPROVED, pageable);
+        bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(user.getId(), BookingStatus.APPROVED, pageable);
 
         assertEquals(1, bookings.size());
         assertEquals(booking2, bookings.get(0));
 
         booking.setStatus(BookingStatus.WAITING);
-        bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(user.getId(), BookingStatus.WAITING, pageable);
+        bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(user.getId(), BookingStatus.WAITING, pageable);
         assertEquals(1, bookings.size());
         assertEquals(booking, bookings.get(0));
 
         booking.setStatus(BookingStatus.CANCELED);
-        bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(user.getId(), BookingStatus.CANCELED, pageable);
+        bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(user.getId(), BookingStatus.CANCELED, pageable);
         assertEquals(1, bookings.size());
         assertEquals(booking, bookings.get(0));
     }
@@ -206,7 +215,7 @@ class BookingRepositoryTest {
     @DirtiesContext
     void findBookingByBookerAndStatusReturnEmpty() {
         Pageable pageable = PageRequest.of(0, 2);
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(1L, BookingStatus.CANCELED, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(1L, BookingStatus.CANCELED, pageable);
 
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
@@ -233,7 +242,7 @@ class BookingRepositoryTest {
         booking.setEnd(after);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(user.getId(), now, now, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(user.getId(), now, now, pageable);
 
         assertEquals(1, bookings.size());
         assertEquals(booking, bookings.get(0));
@@ -260,7 +269,7 @@ class BookingRepositoryTest {
         booking.setEnd(after.plusMinutes(10));
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(user.getId(), now, now, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(user.getId(), now, now, pageable);
 
         assertEquals(0, bookings.size());
         assertNotNull(bookings);
@@ -280,7 +289,7 @@ class BookingRepositoryTest {
         booking2.setBooker(user);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(user.getId(), now, now, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(user.getId(), now, now, pageable);
 
         assertEquals(user, booking.getBooker());
         assertEquals(user, booking2.getBooker());
@@ -290,7 +299,7 @@ class BookingRepositoryTest {
 
     @Test
     @DirtiesContext
-    void findBookingByBookerIdAndEndBeforeOrderByStartDesc() {
+    void findBookingByBookerIdAndEndBeforeOrderByStartDescIdDesc() {
         LocalDateTime before = now.minusHours(2);
 
         User user = new User();
@@ -308,7 +317,7 @@ class BookingRepositoryTest {
         booking2.setEnd(before.plusMinutes(10));
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndEndBeforeOrderByStartDesc(user.getId(), now, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndEndBeforeOrderByStartDescIdDesc(user.getId(), now, pageable);
 
         assertEquals(2, bookings.size());
         assertEquals(booking2, bookings.get(0));
@@ -334,7 +343,7 @@ class BookingRepositoryTest {
         booking2.setEnd(before.plusMinutes(10));
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndEndBeforeOrderByStartDesc(user.getId(), now, pageable);
+        List<Booking> bookings = bookingRepository.findBookingByBookerIdAndEndBeforeOrderByStartDescIdDesc(user.getId(), now, pageable);
 
         assertEquals(1, bookings.size());
         assertEquals(booking2, bookings.get(0));
@@ -342,7 +351,7 @@ class BookingRepositoryTest {
 
     @Test
     @DirtiesContext
-    void findBookingByItemIdAndBookerIdAndStatusNotInAndEndBefore() {
+    void findFinishedBookingIds() {
         LocalDateTime before = now.minusHours(2);
         List<BookingStatus> wrongStatuses = List.of(BookingStatus.WAITING, BookingStatus.REJECTED, BookingStatus.CANCELED);
         Item item = new Item();
@@ -364,17 +373,15 @@ class BookingRepositoryTest {
         booking2.setStatus(BookingStatus.WAITING);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByItemIdAndBookerIdAndStatusNotInAndEndBefore(item.getId(),
-                user.getId(), wrongStatuses, now);
-
-        assertNotNull(bookings);
-        assertEquals(1, bookings.size());
-        assertEquals(booking, bookings.get(0));
+        assertEquals(List.of(booking.getId()), bookingRepository.findFinishedBookingIds(item.getId(),
+                user.getId(), wrongStatuses, now, PageRequest.of(0, 1)));
+        assertTrue(bookingRepository.findFinishedBookingIds(item.getId(),
+                user.getId(), wrongStatuses, before.minusHours(1), PageRequest.of(0, 1)).isEmpty());
     }
 
     @Test
     @DirtiesContext
-    void findBookingByItemIdAndBookerIdAndStatusNotInAndNullNow() {
+    void findFinishedBookingIdsNullNow() {
         LocalDateTime before = now.minusHours(2);
         Item item = new Item();
         itemRepository.save(item);
@@ -395,11 +402,8 @@ class BookingRepositoryTest {
         booking2.setStatus(BookingStatus.APPROVED);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingRepository.findBookingByItemIdAndBookerIdAndStatusNotInAndEndBefore(item.getId(),
-                user.getId(), wrongStatuses, null);
-
-        assertNotNull(bookings);
-        assertEquals(0, bookings.size());
+        assertTrue(bookingRepository.findFinishedBookingIds(item.getId(),
+                user.getId(), wrongStatuses, null, PageRequest.of(0, 1)).isEmpty());
     }
 
 
@@ -571,4 +575,273 @@ class BookingRepositoryTest {
         assertEquals(view.getId(), savedView.getId());
         assertEquals(view.getBooker().getId(), savedView.getBooker().getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DirtiesContext
+    void findBookingByItemOwnerIdOrderByStartDescIdDesc() {
+        User owner = userRepository.save(new User());
+        User otherOwner = userRepository.save(new User());
+        Item item = new Item();
+        item.setOwner(owner);
+        itemRepository.save(item);
+        Item otherItem = new Item();
+        otherItem.setOwner(otherOwner);
+        itemRepository.save(otherItem);
+
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setStart(now.minusHours(1));
+        bookingRepository.save(booking);
+        Booking booking2 = new Booking();
+        booking2.setItem(item);
+        booking2.setStart(now.plusHours(1));
+        bookingRepository.save(booking2);
+        Booking otherBooking = new Booking();
+        otherBooking.setItem(otherItem);
+        otherBooking.setStart(now);
+        bookingRepository.save(otherBooking);
+
+        List<Booking> bookings = bookingRepository.findBookingByItemOwnerIdOrderByStartDescIdDesc(owner.getId(),
+                PageRequest.of(0, 10));
+
+        assertEquals(2, bookings.size());
+        assertEquals(booking2, bookings.get(0));
+        assertEquals(booking, bookings.get(1));
+
+        bookings = bookingRepository.findBookingByItemOwnerIdOrderByStartDescIdDesc(owner.getId(), PageRequest.of(1, 1));
+
+        assertEquals(1, bookings.size());
+        assertEquals(booking, bookings.get(0));
+    }
+
+    @Test
+    @DirtiesContext
+    void findBookingByItemOwnerIdWithStatePredicates() {
+        User owner = userRepository.save(new User());
+        Item item = new Item();
+        item.setOwner(owner);
+        itemRepository.save(item);
+
+        Booking past = new Booking();
+        past.setItem(item);
+        past.setStart(now.minusHours(3));
+        past.setEnd(now.minusHours(2));
+        past.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(past);
+        Booking current = new Booking();
+        current.setItem(item);
+        current.setStart(now.minusHours(1));
+        current.setEnd(now.plusHours(1));
+        current.setStatus(BookingStatus.REJECTED);
+        bookingRepository.save(current);
+        Booking future = new Booking();
+        future.setItem(item);
+        future.setStart(now.plusHours(2));
+        future.setEnd(now.plusHours(3));
+        future.setStatus(BookingStatus.WAITING);
+        bookingRepository.save(future);
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertEquals(List.of(future), bookingRepository.findBookingByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
+                owner.getId(), now, pageable));
+        assertEquals(List.of(current), bookingRepository.findBookingByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(
+                owner.getId(), now, now, pageable));
+        assertEquals(List.of(past), bookingRepository.findBookingByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(
+                owner.getId(), now, pageable));
+        assertEquals(List.of(current), bookingRepository.findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                owner.getId(), BookingStatus.REJECTED, pageable));
+        assertEquals(List.of(future), bookingRepository.findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                owner.getId(), BookingStatus.WAITING, pageable));
+    }
+
+    @Test
+    @DirtiesContext
+    void findLastAndNextBookingsByItemIdIn() {
+        User booker = userRepository.save(new User());
+        Item item = itemRepository.save(new Item());
+        Item item2 = itemRepository.save(new Item());
+        Item emptyItem = itemRepository.save(new Item());
+
+        Booking past = saveBooking(item, booker, now.minusHours(5), now.minusHours(4), BookingStatus.APPROVED);
+        Booking current = saveBooking(item, booker, now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED);
+        Booking next = saveBooking(item, booker, now.plusHours(2), now.plusHours(3), BookingStatus.APPROVED);
+        saveBooking(item, booker, now.plusHours(4), now.plusHours(5), BookingStatus.APPROVED);
+        saveBooking(item, booker, now.plusMinutes(30), now.plusMinutes(40), BookingStatus.WAITING);
+        Booking past2 = saveBooking(item2, booker, now.minusHours(3), now.minusHours(2), BookingStatus.APPROVED);
+        saveBooking(item2, booker, now.minusHours(9), now.minusHours(8), BookingStatus.APPROVED);
+        saveBooking(item2, booker, now.minusHours(1), now.minusMinutes(1), BookingStatus.REJECTED);
+        List<Long> itemIds = List.of(item.getId(), item2.getId(), emptyItem.getId());
+
+        List<ItemBookingView> last = bookingRepository.findLastBookingsByItemIdIn(itemIds, now);
+        List<ItemBookingView> nextBookings = bookingRepository.findNextBookingsByItemIdIn(itemIds, now);
+
+        assertEquals(2, last.size());
+        ItemBookingView lastForItem = findByItemId(last, item.getId());
+        assertEquals(current.getId(), lastForItem.getId());
+        assertEquals(booker.getId(), lastForItem.getBookerId());
+        assertEquals(past2.getId(), findByItemId(last, item2.getId()).getId());
+        assertNotEquals(past.getId(), lastForItem.getId());
+
+        assertEquals(1, nextBookings.size());
+        assertEquals(next.getId(), findByItemId(nextBookings, item.getId()).getId());
+    }
+
+    @Test
+    @DirtiesContext
+    void seekByBookerWalksPagesWithTiesOnStart() {
+        User booker = userRepository.save(new User());
+        Item item = itemRepository.save(new Item());
+        LocalDateTime start = now.plusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        Booking first = saveBooking(item, booker, start, start.plusHours(1), BookingStatus.WAITING);
+        Booking second = saveBooking(item, booker, start, start.plusHours(1), BookingStatus.APPROVED);
+        Booking third = saveBooking(item, booker, now.minusHours(1), now.plusHours(1), BookingStatus.WAITING);
+        Pageable pageable = PageRequest.of(0, 2);
+
+        List<Booking> page = bookingRepository.seekByBooker(booker.getId(), now.plusYears(100), Long.MAX_VALUE, pageable);
+
+        assertEquals(List.of(second, first), page);
+
+        Booking last = page.get(page.size() - 1);
+        page = bookingRepository.seekByBooker(booker.getId(), last.getStart(), last.getId(), pageable);
+
+        assertEquals(List.of(third), page);
+        assertEquals(List.of(third), bookingRepository.seekByBookerAndStatus(booker.getId(), BookingStatus.WAITING,
+                last.getStart(), last.getId(), pageable));
+        assertEquals(List.of(third), bookingRepository.seekCurrentByBooker(booker.getId(), now,
+                last.getStart(), last.getId(), pageable));
+        assertEquals(List.of(second), bookingRepository.seekFutureByBooker(booker.getId(), now,
+                start, second.getId() + 1, PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DirtiesContext
+    void offsetPageThenCursorWalksTiesOnStartOnce() {
+        User owner = userRepository.save(new User());
+        User booker = userRepository.save(new User());
+        Item item = new Item();
+        item.setOwner(owner);
+        itemRepository.save(item);
+        LocalDateTime start = now.plusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Booking> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(0, saveBooking(item, booker, start, start.plusHours(1), BookingStatus.WAITING));
+        }
+
+        // the first page by offset, the rest by the cursor the controller hands out after it
+        List<Booking> byBooker = new ArrayList<>(bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(
+                booker.getId(), OffsetPageRequest.of(0, 2)));
+        Booking last = byBooker.get(byBooker.size() - 1);
+        byBooker.addAll(bookingRepository.seekByBooker(booker.getId(), last.getStart(), last.getId(),
+                PageRequest.of(0, 10)));
+        List<Booking> byOwner = new ArrayList<>(bookingRepository.findBookingByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
+                owner.getId(), now, OffsetPageRequest.of(0, 3)));
+        last = byOwner.get(byOwner.size() - 1);
+        byOwner.addAll(bookingRepository.seekFutureByOwner(owner.getId(), now, last.getStart(), last.getId(),
+                PageRequest.of(0, 10)));
+
+        assertEquals(expected, byBooker);
+        assertEquals(expected, byOwner);
+    }
+
+    @Test
+    @DirtiesContext
+    void seekByOwnerSkipsOtherOwners() {
+        User owner = userRepository.save(new User());
+        User booker = userRepository.save(new User());
+        Item item = new Item();
+        item.setOwner(owner);
+        itemRepository.save(item);
+        Item otherItem = itemRepository.save(new Item());
+        Booking past = saveBooking(item, booker, now.minusHours(3), now.minusHours(2), BookingStatus.APPROVED);
+        Booking future = saveBooking(item, booker, now.plusHours(2), now.plusHours(3), BookingStatus.REJECTED);
+        saveBooking(otherItem, booker, now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED);
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertEquals(List.of(past), bookingRepository.seekByOwner(owner.getId(), future.getStart(), future.getId(), pageable));
+        assertEquals(List.of(past), bookingRepository.seekPastByOwner(owner.getId(), now,
+                now.plusYears(100), Long.MAX_VALUE, pageable));
+        assertEquals(List.of(future), bookingRepository.seekByOwnerAndStatus(owner.getId(), BookingStatus.REJECTED,
+                now.plusYears(100), Long.MAX_VALUE, pageable));
+    }
+
+    private Booking saveBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return bookingRepository.save(booking);
+    }
+
+    private ItemBookingView findByItemId(List<ItemBookingView> views, Long itemId) {
+        return views.stream()
+                .filter(view -> view.getItemId().equals(itemId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    @DirtiesContext
+    void findVersionByIdFollowsBookingAndItemUpdates() {
+        User owner = userRepository.save(new User());
+        User booker = userRepository.save(new User());
+        Item item = new Item();
+        item.setOwner(owner);
+        itemRepository.save(item);
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(BookingStatus.WAITING);
+        bookingRepository.saveAndFlush(booking);
+
+        BookingVersionView before = bookingRepository.findVersionById(booking.getId()).orElseThrow();
+        assertEquals(owner.getId(), before.getOwnerId());
+        assertEquals(booker.getId(), before.getBookerId());
+
+        booking.setStatus(BookingStatus.APPROVED);
+        item.setName("renamed");
+        bookingRepository.flush();
+
+        BookingVersionView after = bookingRepository.findVersionById(booking.getId()).orElseThrow();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(before.getItemVersion() + 1, after.getItemVersion());
+        assertEquals(before.getBookerVersion(), after.getBookerVersion());
+        assertTrue(bookingRepository.findVersionById(-1L).isEmpty());
+    }
+
+    @Test
+    @DirtiesContext
+    void overlapChecksTreatPeriodsAsHalfOpen() {
+        User owner = userRepository.save(new User());
+        User booker = userRepository.save(new User());
+        Item item = new Item();
+        item.setOwner(owner);
+        itemRepository.save(item);
+        LocalDateTime start = now.plusDays(1);
+        bookingRepository.save(new Booking(null, start, start.plusHours(2), item, booker, BookingStatus.APPROVED));
+        Booking waiting = bookingRepository.save(new Booking(null, start.plusHours(4), start.plusHours(6), item, booker,
+                BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null, start.plusHours(8), start.plusHours(10), item, booker,
+                BookingStatus.REJECTED));
+
+        assertTrue(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(item.getId(),
+                BookingStatus.HOLDING, start.plusHours(1), start.plusHours(3)));
+        assertTrue(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(item.getId(),
+                BookingStatus.HOLDING, start.plusHours(5), start.plusHours(7)));
+        // touching ends and rejected bookings leave the period free
+        assertFalse(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(item.getId(),
+                BookingStatus.HOLDING, start.plusHours(2), start.plusHours(4)));
+        assertFalse(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(item.getId(),
+                BookingStatus.HOLDING, start.plusHours(8), start.plusHours(10)));
+        // approving the waiting booking only has to look at the other approved ones
+        assertFalse(bookingRepository.existsByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(item.getId(),
+                waiting.getId(), BookingStatus.APPROVED, waiting.getStart(), waiting.getEnd()));
+
+        List<BookingPeriodView> taken = bookingRepository.findByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStart(
+                item.getId(), BookingStatus.HOLDING, start.plusHours(1), start.plusDays(1));
+        assertEquals(2, taken.size());
+        assertEquals(start, taken.get(0).getStart());
+        assertEquals(start.plusHours(6), taken.get(1).getEnd());
+    }
+}
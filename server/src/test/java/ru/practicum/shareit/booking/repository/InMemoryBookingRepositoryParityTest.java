@@ -0,0 +1,278 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersionView;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// the same bookings saved to the bookings table and to the in-memory store must come back from the same queries in
+// the same order. Both stores book the same items and users, from the database; bookings are compared by the order
+// they were saved in, the stores hand out their own ids.
+// Dirties the context for the repository tests after it, which expect their sequences to start at 1
+@DataJpaTest
+@DirtiesContext
+class InMemoryBookingRepositoryParityTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+    private static final List<BookingStatus> NOT_APPROVED = List.of(BookingStatus.WAITING, BookingStatus.REJECTED,
+            BookingStatus.CANCELED);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager em;
+
+    private InMemoryBookingRepository memory;
+    private User owner;
+    private User otherOwner;
+    private User booker;
+    private User otherBooker;
+    private Item drill;
+    private Item saw;
+    private Item ladder;
+    private final List<Long> databaseIds = new ArrayList<>();
+    private final List<Long> memoryIds = new ArrayList<>();
+    private final List<Integer> startDays = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        memory = new InMemoryBookingRepository(itemRepository, userRepository);
+        owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        otherOwner = userRepository.save(new User(null, "other", "other@mail.com"));
+        booker = userRepository.save(new User(null, "booker", "booker@mail.com"));
+        otherBooker = userRepository.save(new User(null, "other booker", "other.booker@mail.com"));
+        drill = itemRepository.save(new Item(null, "drill", "electric", true, owner, null));
+        saw = itemRepository.save(new Item(null, "saw", "hand saw", true, owner, null));
+        ladder = itemRepository.save(new Item(null, "ladder", "tall", true, otherOwner, null));
+        save(drill, booker, -10, -8, BookingStatus.APPROVED);
+        save(drill, otherBooker, -5, -4, BookingStatus.REJECTED);
+        save(drill, booker, -1, 1, BookingStatus.APPROVED);
+        save(drill, otherBooker, 2, 3, BookingStatus.WAITING);
+        // starts with the one before, the id decides
+        save(drill, booker, 2, 4, BookingStatus.WAITING);
+        save(saw, otherBooker, 5, 6, BookingStatus.APPROVED);
+        save(saw, booker, -3, -2, BookingStatus.CANCELED);
+        save(ladder, booker, 1, 2, BookingStatus.APPROVED);
+        save(saw, otherBooker, -7, -6, BookingStatus.APPROVED);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void listingsOfBooker() {
+        for (User user : List.of(booker, otherBooker)) {
+            Long id = user.getId();
+            for (Pageable page : List.of(OffsetPageRequest.of(0, 10), OffsetPageRequest.of(1, 2))) {
+                assertParity(repository -> repository.findBookingByBookerIdOrderByStartDescIdDesc(id, page));
+                assertParity(repository -> repository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(id,
+                        NOW, page));
+                assertParity(repository -> repository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(id,
+                        BookingStatus.WAITING, page));
+                assertParity(repository -> repository
+                        .findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(id, NOW, NOW, page));
+                assertParity(repository -> repository.findBookingByBookerIdAndEndBeforeOrderByStartDescIdDesc(id,
+                        NOW, page));
+            }
+        }
+    }
+
+    @Test
+    void listingsOfOwner() {
+        for (User user : List.of(owner, otherOwner, booker)) {
+            Long id = user.getId();
+            for (Pageable page : List.of(OffsetPageRequest.of(0, 10), OffsetPageRequest.of(1, 2))) {
+                assertParity(repository -> repository.findBookingByItemOwnerIdOrderByStartDescIdDesc(id, page));
+                assertParity(repository -> repository.findBookingByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(id,
+                        NOW, page));
+                assertParity(repository -> repository.findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(id,
+                        BookingStatus.REJECTED, page));
+                assertParity(repository -> repository
+                        .findBookingByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(id, NOW, NOW,
+                                page));
+                assertParity(repository -> repository.findBookingByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(id,
+                        NOW, page));
+            }
+        }
+    }
+
+    @Test
+    void seeks() {
+        // continues after the later of the two bookings that start together
+        for (int cursor : List.of(4, 3, 0)) {
+            LocalDateTime start = NOW.plusDays(startDays.get(cursor));
+            Pageable page = PageRequest.of(0, 3);
+            Long bookerId = booker.getId();
+            Long ownerId = owner.getId();
+            assertSeekParity(cursor, (repository, id) -> repository.seekByBooker(bookerId, start, id, page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekByBookerAndStatus(bookerId,
+                    BookingStatus.APPROVED, start, id, page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekFutureByBooker(bookerId, NOW, start, id,
+                    page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekCurrentByBooker(bookerId, NOW, start, id,
+                    page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekPastByBooker(bookerId, NOW, start, id, page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekByOwner(ownerId, start, id, page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekByOwnerAndStatus(ownerId,
+                    BookingStatus.WAITING, start, id, page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekFutureByOwner(ownerId, NOW, start, id, page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekCurrentByOwner(ownerId, NOW, start, id,
+                    page));
+            assertSeekParity(cursor, (repository, id) -> repository.seekPastByOwner(ownerId, NOW, start, id, page));
+        }
+    }
+
+    @Test
+    void bookingsOfItem() {
+        for (Item item : List.of(drill, saw, ladder)) {
+            Long id = item.getId();
+            assertViewParity(repository -> repository.findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(id, NOW,
+                    NOT_APPROVED));
+            assertViewParity(repository -> repository.findByItemIdAndStartIsAfterAndStatusNotInOrderByStart(id, NOW,
+                    NOT_APPROVED));
+            assertViewParity(repository -> repository
+                    .findByItemIdAndStartIsBeforeAndEndIsAfterAndStatusNotInOrderByEndDesc(id, NOW, NOW, NOT_APPROVED));
+            assertEquals(periods(bookingRepository, id), periods(memory, id));
+        }
+        List<Long> itemIds = List.of(drill.getId(), saw.getId(), ladder.getId(), -1L);
+        assertEquals(byItem(bookingRepository.findLastBookingsByItemIdIn(itemIds, NOW), databaseIds),
+                byItem(memory.findLastBookingsByItemIdIn(itemIds, NOW), memoryIds));
+        assertEquals(byItem(bookingRepository.findNextBookingsByItemIdIn(itemIds, NOW), databaseIds),
+                byItem(memory.findNextBookingsByItemIdIn(itemIds, NOW), memoryIds));
+    }
+
+    @Test
+    void overlaps() {
+        for (int day = -11; day <= 6; day++) {
+            LocalDateTime start = NOW.plusDays(day);
+            LocalDateTime end = start.plusDays(1);
+            for (Item item : List.of(drill, saw)) {
+                Long id = item.getId();
+                assertEquals(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(id,
+                                BookingStatus.HOLDING, start, end),
+                        memory.existsByItemIdAndStatusInAndEndAfterAndStartBefore(id, BookingStatus.HOLDING, start,
+                                end), "day " + day);
+                assertEquals(bookingRepository.existsByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(id,
+                                databaseIds.get(2), BookingStatus.APPROVED, start, end),
+                        memory.existsByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(id, memoryIds.get(2),
+                                BookingStatus.APPROVED, start, end), "day " + day);
+                List<Booking> database = new ArrayList<>(bookingRepository
+                        .findByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(id, databaseIds.get(3),
+                                BookingStatus.WAITING, start, end));
+                // the derived query has no order, the in-memory one lists by id
+                database.sort(Comparator.comparing(Booking::getId));
+                assertEquals(describe(database, databaseIds), describe(memory
+                        .findByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(id, memoryIds.get(3),
+                                BookingStatus.WAITING, start, end), memoryIds), "day " + day);
+            }
+        }
+    }
+
+    @Test
+    void finishedBookings() {
+        for (Item item : List.of(drill, saw, ladder)) {
+            for (User user : List.of(booker, otherBooker)) {
+                List<Long> database = new ArrayList<>(bookingRepository.findFinishedBookingIds(item.getId(),
+                        user.getId(), NOT_APPROVED.subList(0, 1), NOW, PageRequest.of(0, 10)));
+                database.sort(Comparator.naturalOrder());
+                assertEquals(positions(database, databaseIds), positions(memory.findFinishedBookingIds(item.getId(),
+                        user.getId(), NOT_APPROVED.subList(0, 1), NOW, PageRequest.of(0, 10)), memoryIds));
+            }
+        }
+    }
+
+    @Test
+    void versions() {
+        for (int booking = 0; booking < databaseIds.size(); booking++) {
+            assertEquals(describe(bookingRepository.findVersionById(databaseIds.get(booking)).orElseThrow()),
+                    describe(memory.findVersionById(memoryIds.get(booking)).orElseThrow()));
+        }
+        assertEquals(bookingRepository.findVersionById(-1L).isPresent(), memory.findVersionById(-1L).isPresent());
+    }
+
+    private void save(Item item, User user, int startDay, int endDay, BookingStatus status) {
+        databaseIds.add(bookingRepository.save(new Booking(null, NOW.plusDays(startDay), NOW.plusDays(endDay), item,
+                user, status)).getId());
+        memoryIds.add(memory.save(new Booking(null, NOW.plusDays(startDay), NOW.plusDays(endDay), item, user,
+                status)).getId());
+        startDays.add(startDay);
+    }
+
+    private void assertParity(Function<BookingRepository, List<Booking>> query) {
+        assertEquals(describe(query.apply(bookingRepository), databaseIds), describe(query.apply(memory), memoryIds));
+    }
+
+    private void assertSeekParity(int cursor, SeekQuery query) {
+        assertEquals(describe(query.apply(bookingRepository, databaseIds.get(cursor)), databaseIds),
+                describe(query.apply(memory, memoryIds.get(cursor)), memoryIds), "after #" + cursor);
+    }
+
+    private void assertViewParity(Function<BookingRepository, List<BookingView>> query) {
+        assertEquals(views(query.apply(bookingRepository), databaseIds), views(query.apply(memory), memoryIds));
+    }
+
+    private static List<String> periods(BookingRepository repository, Long itemId) {
+        return repository.findByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStart(itemId, BookingStatus.HOLDING,
+                        NOW.minusDays(30), NOW.plusDays(30)).stream()
+                .map(period -> period.getStart() + "/" + period.getEnd())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> describe(List<Booking> bookings, List<Long> ids) {
+        return bookings.stream()
+                .map(booking -> "#" + ids.indexOf(booking.getId()) + " " + booking.getStatus() + " "
+                        + booking.getItem().getName() + " " + booking.getBooker().getName())
+                .collect(Collectors.toList());
+    }
+
+    private static String describe(BookingVersionView view) {
+        return view.getBookerId() + " " + view.getOwnerId() + " " + view.getVersion() + " " + view.getItemVersion()
+                + " " + view.getBookerVersion();
+    }
+
+    private static List<String> views(List<BookingView> views, List<Long> ids) {
+        return views.stream()
+                .map(view -> "#" + ids.indexOf(view.getId()) + " " + view.getBooker().getId())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> byItem(List<ItemBookingView> views, List<Long> ids) {
+        return views.stream()
+                .map(view -> view.getItemId() + " #" + ids.indexOf(view.getId()) + " " + view.getBookerId())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> positions(List<Long> found, List<Long> ids) {
+        return found.stream().map(ids::indexOf).collect(Collectors.toList());
+    }
+
+    private interface SeekQuery {
+        List<Booking> apply(BookingRepository repository, Long id);
+    }
+}
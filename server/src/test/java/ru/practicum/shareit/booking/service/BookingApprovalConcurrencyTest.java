@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.ClockConfig;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestTime;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// the owner approves several requests for the same item at once, or several bookers ask for it at once; each call
+// commits on its own, as behind the controller, so the threads really race for the item
+@DataJpaTest
+@Import({BookingServiceImpl.class, BookingMapper.class, BookingListingCache.class, RequestTime.class,
+        ClockConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingApprovalConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private ExecutorService executor;
+    private User owner;
+    private Item item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        item = itemRepository.save(new Item(null, "drill", "description", true, owner, null));
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void onlyOneOfOverlappingRequestsIsApproved() throws Exception {
+        // every request overlaps every other one
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ids.add(book(i, start.plusMinutes(i), start.plusHours(2).plusMinutes(i)));
+        }
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        race(ids.stream().map(id -> (Callable<Void>) () -> {
+            try {
+                bookingService.setApprove(owner.getId(), true, id);
+                approved.incrementAndGet();
+            } catch (BadRequestException | ConcurrencyFailureException e) {
+                refused.incrementAndGet();
+            }
+            return null;
+        }).collect(Collectors.toList()));
+
+        assertEquals(1, approved.get());
+        assertEquals(THREADS - 1, refused.get());
+        List<Booking> bookings = bookingRepository.findAllById(ids);
+        assertEquals(1, bookings.stream().filter(b -> b.getStatus() == BookingStatus.APPROVED).count());
+        // the winner answered everyone else
+        assertEquals(THREADS - 1, bookings.stream().filter(b -> b.getStatus() == BookingStatus.REJECTED).count());
+    }
+
+    @Test
+    void separateRequestsAreAllApproved() throws Exception {
+        // none overlaps another: the approvals queue up on the item instead of failing each other
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ids.add(book(i, start.plusHours(3L * i), start.plusHours(3L * i + 2)));
+        }
+
+        race(ids.stream().map(id -> (Callable<Void>) () -> {
+            bookingService.setApprove(owner.getId(), true, id);
+            return null;
+        }).collect(Collectors.toList()));
+
+        assertTrue(bookingRepository.findAllById(ids).stream().allMatch(b -> b.getStatus() == BookingStatus.APPROVED));
+    }
+
+    @Test
+    void onlyOneOfOverlappingRequestsIsCreated() throws Exception {
+        List<Long> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(new User(null, "booker " + i, "booker" + i + "@mail.com")).getId());
+        }
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        race(bookers.stream().map(booker -> (Callable<Void>) () -> {
+            try {
+                bookingService.addBooking(new BookingCreateDto(null, start, start.plusHours(2), item.getId()), booker);
+                created.incrementAndGet();
+            } catch (BadRequestException e) {
+                refused.incrementAndGet();
+            }
+            return null;
+        }).collect(Collectors.toList()));
+
+        assertEquals(1, created.get());
+        assertEquals(THREADS - 1, refused.get());
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void approvalOfChangedRequestIsAConflict() throws Exception {
+        Long id = book(0, start, start.plusHours(2));
+        Booking stale = bookingRepository.findById(id).orElseThrow();
+        bookingService.setApprove(owner.getId(), false, id);
+
+        // a save of the request as it was read before the rejection must not overwrite it
+        stale.setStatus(BookingStatus.APPROVED);
+        assertThrows(ConcurrencyFailureException.class, () -> bookingRepository.save(stale));
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    private Long book(int booker, LocalDateTime from, LocalDateTime to) {
+        User user = userRepository.save(new User(null, "booker " + booker, "booker" + booker + "@mail.com"));
+        return bookingRepository.save(new Booking(null, from, to, item, user, BookingStatus.WAITING)).getId();
+    }
+
+    // all tasks are released together and must finish; an unexpected exception fails the test
+    private void race(List<Callable<Void>> tasks) throws InterruptedException, ExecutionException {
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return task.call();
+            }));
+        }
+        ready.countDown();
+        for (Future<Void> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                throw new AssertionError("Call did not finish", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.ClockConfig;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.RequestTime;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookingServiceImpl.class, BookingMapper.class, BookingListingCache.class, RequestTime.class,
+        ClockConfig.class})
+class BookingServiceQueryCountTest {
+    private static final int BOOKINGS = 30;
+
+    @Autowired
+    private BookingService service;
+    @Autowired
+    private TestEntityManager em;
+
+    private Long bookerId;
+    private Long ownerId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        User owner = em.persist(new User(null, "owner", "owner@mail.com"));
+        User booker = em.persist(new User(null, "booker", "booker@mail.com"));
+        for (int i = 0; i < BOOKINGS; i++) {
+            Item item = em.persist(new Item(null, "item " + i, "description", true, owner, null));
+            // every third booking is in the past, current or in the future
+            LocalDateTime start = now.plusDays(i % 3 - 1).minusHours(1).plusMinutes(i);
+            em.persist(new Booking(null, start, start.plusHours(2), item, booker,
+                    i % 2 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED));
+        }
+        em.flush();
+        em.clear();
+
+        bookerId = booker.getId();
+        ownerId = owner.getId();
+        statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING"})
+    void bookerListingIsOneQueryPerPage(String state) {
+        List<BookingDto> bookings = service.getAllByUserId(bookerId, state, 0L, 20L);
+
+        assertLoadedInOneQuery(bookings);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING"})
+    void ownerListingIsOneQueryPerPage(String state) {
+        List<BookingDto> bookings = service.getAllByOwnerId(ownerId, state, 0L, 20L);
+
+        assertLoadedInOneQuery(bookings);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "WAITING"})
+    void cursorListingIsOneQueryPerPage(String state) {
+        String cursor = new BookingCursor(LocalDateTime.now().plusYears(1), Long.MAX_VALUE).encode();
+
+        assertLoadedInOneQuery(service.getAllByUserIdAfter(bookerId, state, cursor, 20L));
+        statistics.clear();
+        assertLoadedInOneQuery(service.getAllByOwnerIdAfter(ownerId, state, cursor, 20L));
+    }
+
+    private void assertLoadedInOneQuery(List<BookingDto> bookings) {
+        assertFalse(bookings.isEmpty());
+        bookings.forEach(booking -> {
+            assertEquals("booker", booking.getBooker().getName());
+            assertEquals("description", booking.getItem().getDescription());
+        });
+        // user lookup and the page itself, whatever the number of rows
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
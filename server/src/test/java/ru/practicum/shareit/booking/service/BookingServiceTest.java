@@ -8,10 +8,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersionView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -19,8 +21,13 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
+import ru.practicum.shareit.util.RequestTime;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +46,7 @@ public class BookingServiceTest {
     private UserRepository userRepository;
     private BookingService bookingService;
     private BookingMapper mapper;
+    private final Clock clock = Clock.fixed(Instant.parse("2026-10-18T12:00:00.700Z"), ZoneOffset.UTC);
 
     @BeforeEach
     public void setUp() {
@@ -47,7 +55,9 @@ public class BookingServiceTest {
                 bookingRepository,
                 mapper,
                 itemRepository,
-                userRepository
+                userRepository,
+                new RequestTime(clock),
+                new BookingListingCache()
         );
     }
 
@@ -81,6 +91,7 @@ public class BookingServiceTest {
 
         when(userRepository.findById(anyLong())).thenReturn(java.util.Optional.of(booker));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findLockedById(1L)).thenReturn(Optional.of(item));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         BookingDto result = bookingService.addBooking(createDto, 1L);
@@ -93,11 +104,34 @@ public class BookingServiceTest {
         assertEquals(mapper.itemToItemDto(item), result.getItem());
         assertEquals(booking.getStatus(), result.getStatus());
 
-        verify(itemRepository, times(2)).findById(anyLong());
+        verify(itemRepository, times(1)).findById(anyLong());
         verify(userRepository).findById(anyLong());
         verify(bookingRepository).save(any(Booking.class));
     }
 
+    @Test
+    void testAddBookingOverlappingPeriodExpectBadRequest() {
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        BookingCreateDto createDto = new BookingCreateDto();
+        createDto.setItemId(1L);
+        createDto.setStart(start);
+        createDto.setEnd(start.plusHours(2));
+        User owner = new User(2L);
+        Item item = new Item();
+        item.setId(1L);
+        item.setAvailable(true);
+        item.setOwner(owner);
+
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.findLockedById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L)));
+        when(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(1L, BookingStatus.HOLDING,
+                start, start.plusHours(2))).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.addBooking(createDto, 1L));
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void testAddBookingItemNotAvailable() {
         BookingCreateDto createDto = new BookingCreateDto();
@@ -129,7 +163,7 @@ public class BookingServiceTest {
 
         assertThrows(NotFoundException.class, () -> bookingService.addBooking(createDto, 1L));
 
-        verify(itemRepository, times(2)).findById(anyLong());
+        verify(itemRepository, times(1)).findById(anyLong());
         verify(userRepository, times(1)).findById(anyLong());
         verifyNoInteractions(bookingRepository);
     }
@@ -152,6 +186,67 @@ public class BookingServiceTest {
         verifyNoInteractions(bookingRepository, userRepository);
     }
 
+    @Test
+    void testSetApproveOverlappingApprovedExpectBadRequest() {
+        User owner = new User(1L);
+        Item item = new Item();
+        item.setId(3L);
+        item.setOwner(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = new Booking(5L, start, start.plusHours(1), item, new User(2L), BookingStatus.WAITING);
+
+        when(bookingRepository.findById(5L)).thenReturn(Optional.of(booking));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(itemRepository.findLockedById(3L)).thenReturn(Optional.of(item));
+        when(bookingRepository.existsByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(3L, 5L,
+                BookingStatus.APPROVED, start, start.plusHours(1))).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.setApprove(1L, true, 5L));
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void testSetRejectSkipsOverlapCheck() {
+        User owner = new User(1L);
+        Item item = new Item();
+        item.setId(3L);
+        item.setOwner(owner);
+        Booking booking = new Booking(5L, LocalDateTime.now(), LocalDateTime.now().plusHours(1), item, new User(2L),
+                BookingStatus.WAITING);
+
+        when(bookingRepository.findById(5L)).thenReturn(Optional.of(booking));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(bookingRepository.save(booking)).thenReturn(booking);
+
+        assertEquals(BookingStatus.REJECTED, bookingService.setApprove(1L, false, 5L).getStatus());
+        verify(bookingRepository, never()).existsByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(any(), any(),
+                any(), any(), any());
+        verify(itemRepository, never()).findLockedById(any());
+    }
+
+    @Test
+    void testSetApproveRejectsOverlappingWaiting() {
+        User owner = new User(1L);
+        Item item = new Item();
+        item.setId(3L);
+        item.setOwner(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = new Booking(5L, start, start.plusHours(2), item, new User(2L), BookingStatus.WAITING);
+        Booking overlapping = new Booking(6L, start.plusHours(1), start.plusHours(3), item, new User(4L),
+                BookingStatus.WAITING);
+
+        when(bookingRepository.findById(5L)).thenReturn(Optional.of(booking));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(itemRepository.findLockedById(3L)).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItemIdAndIdNotAndStatusAndEndAfterAndStartBefore(3L, 5L,
+                BookingStatus.WAITING, start, start.plusHours(2))).thenReturn(List.of(overlapping));
+        when(bookingRepository.save(booking)).thenReturn(booking);
+
+        assertEquals(BookingStatus.APPROVED, bookingService.setApprove(1L, true, 5L).getStatus());
+        assertEquals(BookingStatus.REJECTED, overlapping.getStatus());
+    }
+
     @Test
     void testSetApprove_Success() {
         Long bookingId = 1L;
@@ -166,6 +261,7 @@ public class BookingServiceTest {
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(itemRepository.findLockedById(any())).thenReturn(Optional.of(item));
         when(bookingRepository.save(booking)).thenReturn(booking);
 
         BookingDto result = bookingService.setApprove(ownerId, true, bookingId);
@@ -347,6 +443,35 @@ public class BookingServiceTest {
         verify(bookingRepository).findById(bookingId);
     }
 
+    @Test
+    public void testGetBookingTagChangesWithVersions() {
+        BookingVersionView view = mock(BookingVersionView.class);
+        when(view.getBookerId()).thenReturn(2L);
+        when(view.getOwnerId()).thenReturn(1L);
+        when(view.getVersion()).thenReturn(3L);
+        when(view.getItemVersion()).thenReturn(4L);
+        when(view.getBookerVersion()).thenReturn(5L);
+        when(bookingRepository.findVersionById(7L)).thenReturn(Optional.of(view));
+
+        assertEquals("b7.3.4.5", bookingService.getBookingTag(2L, 7L));
+        assertEquals("b7.3.4.5", bookingService.getBookingTag(1L, 7L));
+        when(view.getVersion()).thenReturn(4L);
+        assertEquals("b7.4.4.5", bookingService.getBookingTag(1L, 7L));
+        verify(bookingRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetBookingTagForStrangerExpectNotFound() {
+        BookingVersionView view = mock(BookingVersionView.class);
+        when(view.getBookerId()).thenReturn(2L);
+        when(view.getOwnerId()).thenReturn(1L);
+        when(bookingRepository.findVersionById(7L)).thenReturn(Optional.of(view));
+
+        assertThrows(NotFoundException.class, () -> bookingService.getBookingTag(3L, 7L));
+        when(bookingRepository.findVersionById(8L)).thenReturn(Optional.empty());
+        assertThrows(NotFoundException.class, () -> bookingService.getBookingTag(2L, 8L));
+    }
+
     @Test
     public void getAllByUserIdStateAllCorrect() {
         LocalDateTime now = LocalDateTime.now();
@@ -359,10 +484,10 @@ public class BookingServiceTest {
         Booking booking2 = new Booking();
         booking2.setBooker(user);
         booking2.setStart(now2);
-        Pageable pageable = PageRequest.of(0, 2);
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByBookerIdOrderByStartDesc(userId, pageable)).thenReturn(List.of(
+        when(bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(userId, pageable)).thenReturn(List.of(
                 booking, booking2
         ));
 
@@ -386,10 +511,10 @@ public class BookingServiceTest {
         Booking booking2 = new Booking();
         booking2.setBooker(user);
         booking2.setStart(now2);
-        Pageable pageable = PageRequest.of(0, 2);
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDesc(
+        when(bookingRepository.findBookingByBookerIdAndStartAfterOrderByStartDescIdDesc(
                 eq(userId),
                 any(LocalDateTime.class),
                 eq(pageable)
@@ -415,10 +540,10 @@ public class BookingServiceTest {
         Booking booking2 = new Booking();
         booking2.setBooker(user);
         booking2.setStart(now2);
-        Pageable pageable = PageRequest.of(0, 2);
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(
+        when(bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(
                 eq(userId),
                 eq(BookingStatus.REJECTED),
                 eq(pageable)
@@ -444,10 +569,10 @@ public class BookingServiceTest {
         Booking booking2 = new Booking();
         booking2.setBooker(user);
         booking2.setStart(now2);
-        Pageable pageable = PageRequest.of(0, 2);
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByBookerIdAndStatusOrderByStartDesc(
+        when(bookingRepository.findBookingByBookerIdAndStatusOrderByStartDescIdDesc(
                 eq(userId),
                 eq(BookingStatus.WAITING),
                 eq(pageable)
@@ -473,10 +598,10 @@ public class BookingServiceTest {
         Booking booking2 = new Booking();
         booking2.setBooker(user);
         booking2.setStart(now2);
-        Pageable pageable = PageRequest.of(0, 2);
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
+        when(bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(
                 eq(userId),
                 any(LocalDateTime.class),
                 any(LocalDateTime.class),
@@ -503,10 +628,10 @@ public class BookingServiceTest {
         Booking booking2 = new Booking();
         booking2.setBooker(user);
         booking2.setStart(now2);
-        Pageable pageable = PageRequest.of(0, 2);
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByBookerIdAndEndBeforeOrderByStartDesc(
+        when(bookingRepository.findBookingByBookerIdAndEndBeforeOrderByStartDescIdDesc(
                 eq(userId),
                 any(LocalDateTime.class),
                 eq(pageable)
@@ -541,22 +666,17 @@ public class BookingServiceTest {
     public void getAllByOwnerIdStateAllCurrent() {
         Long ownerId = 1L;
         User owner = new User(ownerId);
-        Item item = new Item();
-        item.setId(1L);
-        item.setOwner(owner);
-        Item item2 = new Item();
-        item2.setId(2L);
-        item2.setOwner(owner);
         Booking booking = new Booking();
+        booking.setId(1L);
         booking.setStart(LocalDateTime.now().minusMinutes(10));
-        booking.setItem(item);
         Booking booking2 = new Booking();
-        booking2.setItem(item2);
+        booking2.setId(2L);
         booking2.setStart(LocalDateTime.now().minusMinutes(30));
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking, booking2));
+        when(bookingRepository.findBookingByItemOwnerIdOrderByStartDescIdDesc(ownerId, pageable))
+                .thenReturn(List.of(booking, booking2));
 
         List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerId, "ALL", 0L, 2L);
 
@@ -564,28 +684,27 @@ public class BookingServiceTest {
         assertEquals(2, bookings.size());
         assertEquals(booking.getId(), bookings.get(0).getId());
         assertEquals(booking2.getId(), bookings.get(1).getId());
+        verify(bookingRepository, never()).findAll();
     }
 
     @Test
     public void getAllByOwnerIdStateFutureCurrent() {
         Long ownerId = 1L;
         User owner = new User(ownerId);
-        Item item = new Item();
-        item.setId(1L);
-        item.setOwner(owner);
-        Item item2 = new Item();
-        item2.setId(2L);
-        item2.setOwner(owner);
         Booking booking = new Booking();
-        booking.setStart(LocalDateTime.now().plusMinutes(10));
-        booking.setItem(item);
+        booking.setId(1L);
+        booking.setStart(LocalDateTime.now().plusMinutes(30));
         Booking booking2 = new Booking();
-        booking2.setItem(item2);
-        booking2.setStart(LocalDateTime.now().plusMinutes(30));
+        booking2.setId(2L);
+        booking2.setStart(LocalDateTime.now().plusMinutes(10));
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking, booking2));
+        when(bookingRepository.findBookingByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
+                eq(ownerId),
+                any(LocalDateTime.class),
+                eq(pageable)
+        )).thenReturn(List.of(booking, booking2));
 
         List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerId, "FUTURE", 0L, 2L);
 
@@ -599,151 +718,217 @@ public class BookingServiceTest {
     public void getAllByOwnerIdStateRejectedCurrent() {
         Long ownerId = 1L;
         User owner = new User(ownerId);
-        Item item = new Item();
-        item.setId(1L);
-        item.setOwner(owner);
-        Item item2 = new Item();
-        item2.setId(2L);
-        item2.setOwner(owner);
         Booking booking = new Booking();
+        booking.setId(1L);
         booking.setStatus(BookingStatus.REJECTED);
-        booking.setItem(item);
-        booking.setStart(LocalDateTime.now().plusMinutes(10));
-        Booking booking2 = new Booking();
-        booking2.setItem(item2);
-        booking2.setStatus(BookingStatus.REJECTED);
-        booking2.setStart(LocalDateTime.now().plusMinutes(30));
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking, booking2));
+        when(bookingRepository.findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                eq(ownerId),
+                eq(BookingStatus.REJECTED),
+                eq(pageable)
+        )).thenReturn(List.of(booking));
 
         List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerId, "REJECTED", 0L, 2L);
 
         assertNotNull(bookings);
-        assertEquals(2, bookings.size());
-        assertEquals(booking.getId(), bookings.get(0).getId());
-        assertEquals(booking2.getId(), bookings.get(1).getId());
+        assertEquals(1, bookings.size());
+        assertEquals(BookingStatus.REJECTED, bookings.get(0).getStatus());
     }
 
     @Test
     public void getAllByOwnerIdStateWaitingCurrent() {
         Long ownerId = 1L;
         User owner = new User(ownerId);
-        Item item = new Item();
-        item.setId(1L);
-        item.setOwner(owner);
-        Item item2 = new Item();
-        item2.setId(2L);
-        item2.setOwner(owner);
         Booking booking = new Booking();
+        booking.setId(1L);
         booking.setStatus(BookingStatus.WAITING);
-        booking.setItem(item);
-        booking.setStart(LocalDateTime.now().plusMinutes(10));
-        Booking booking2 = new Booking();
-        booking2.setItem(item2);
-        booking2.setStatus(BookingStatus.WAITING);
-        booking2.setStart(LocalDateTime.now().plusMinutes(30));
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking, booking2));
+        when(bookingRepository.findBookingByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                eq(ownerId),
+                eq(BookingStatus.WAITING),
+                eq(pageable)
+        )).thenReturn(List.of(booking));
 
         List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerId, "WAITING", 0L, 2L);
 
         assertNotNull(bookings);
-        assertEquals(2, bookings.size());
-        assertEquals(booking.getId(), bookings.get(0).getId());
-        assertEquals(booking2.getId(), bookings.get(1).getId());
+        assertEquals(1, bookings.size());
+        assertEquals(BookingStatus.WAITING, bookings.get(0).getStatus());
     }
 
     @Test
     public void getAllByOwnerIdStateCurrent() {
         Long ownerId = 1L;
         User owner = new User(ownerId);
-        Item item = new Item();
-        item.setId(1L);
-        item.setOwner(owner);
-        Item item2 = new Item();
-        item2.setId(2L);
-        item2.setOwner(owner);
         Booking booking = new Booking();
-        booking.setItem(item);
+        booking.setId(1L);
         booking.setEnd(LocalDateTime.now().plusMinutes(10));
         booking.setStart(LocalDateTime.now().minusMinutes(10));
-        Booking booking2 = new Booking();
-        booking2.setItem(item2);
-        booking2.setEnd(LocalDateTime.now().plusMinutes(30));
-        booking2.setStart(LocalDateTime.now().minusMinutes(30));
+        Pageable pageable = OffsetPageRequest.of(2, 2);
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking, booking2));
+        when(bookingRepository.findBookingByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(
+                eq(ownerId),
+                any(LocalDateTime.class),
+                any(LocalDateTime.class),
+                eq(pageable)
+        )).thenReturn(List.of(booking));
 
-        List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerId, "CURRENT", 0L, 2L);
+        List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerId, "CURRENT", 2L, 2L);
 
         assertNotNull(bookings);
-        assertEquals(2, bookings.size());
+        assertEquals(1, bookings.size());
         assertEquals(booking.getId(), bookings.get(0).getId());
-        assertEquals(booking2.getId(), bookings.get(1).getId());
     }
 
     @Test
     public void getAllByOwnerIdStatePastCurrent() {
         Long ownerId = 1L;
         User owner = new User(ownerId);
-        Item item = new Item();
-        item.setId(1L);
-        item.setOwner(owner);
-        Item item2 = new Item();
-        item2.setId(2L);
-        item2.setOwner(owner);
         Booking booking = new Booking();
-        booking.setItem(item);
+        booking.setId(1L);
         booking.setEnd(LocalDateTime.now().minusMinutes(30));
-        booking.setStart(LocalDateTime.now().plusMinutes(10));
-        Booking booking2 = new Booking();
-        booking2.setItem(item2);
-        booking2.setEnd(LocalDateTime.now().minusMinutes(60));
-        booking2.setStart(LocalDateTime.now().plusMinutes(30));
+        booking.setStart(LocalDateTime.now().minusMinutes(60));
+        Pageable pageable = OffsetPageRequest.of(0, 2);
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking, booking2));
+        when(bookingRepository.findBookingByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(
+                eq(ownerId),
+                any(LocalDateTime.class),
+                eq(pageable)
+        )).thenReturn(List.of(booking));
 
         List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerId, "PAST", 0L, 2L);
 
         assertNotNull(bookings);
-        assertEquals(2, bookings.size());
+        assertEquals(1, bookings.size());
         assertEquals(booking.getId(), bookings.get(0).getId());
-        assertEquals(booking2.getId(), bookings.get(1).getId());
     }
 
     @Test
     public void getAllByOwnerIdStateWrong() {
         Long ownerId = 1L;
         User owner = new User(ownerId);
-        Item item = new Item();
-        item.setId(1L);
-        item.setOwner(owner);
-        Item item2 = new Item();
-        item2.setId(2L);
-        item2.setOwner(owner);
-        Booking booking = new Booking();
-        booking.setItem(item);
-        booking.setEnd(LocalDateTime.now().minusMinutes(30));
-        booking.setStart(LocalDateTime.now().plusMinutes(10));
-        Booking booking2 = new Booking();
-        booking2.setItem(item2);
-        booking2.setEnd(LocalDateTime.now().minusMinutes(60));
-        booking2.setStart(LocalDateTime.now().plusMinutes(30));
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking, booking2));
 
         assertThrows(BadRequestException.class, () -> bookingService.getAllByOwnerId(ownerId, "WRONGSTATE", 0L, 2L));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    public void getAllByUserIdUsesExactOffset() {
+        Long userId = 1L;
+        User user = new User(userId);
+        Pageable pageable = OffsetPageRequest.of(3, 2);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bookingRepository.findBookingByBookerIdOrderByStartDescIdDesc(userId, pageable)).thenReturn(List.of());
+
+        List<BookingDto> bookings = bookingService.getAllByUserId(userId, "ALL", 3L, 2L);
+
+        assertTrue(bookings.isEmpty());
+        verify(bookingRepository).findBookingByBookerIdOrderByStartDescIdDesc(userId, pageable);
+    }
+
+    @Test
+    public void getAllByUserIdAfterCursor() {
+        Long userId = 1L;
+        User user = new User(userId);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        String cursor = new BookingCursor(start, 7L).encode();
+        Booking booking = new Booking();
+        booking.setId(6L);
+        booking.setBooker(user);
+        booking.setStart(start);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bookingRepository.seekByBooker(userId, start, 7L, PageRequest.of(0, 2))).thenReturn(List.of(booking));
+
+        List<BookingDto> bookings = bookingService.getAllByUserIdAfter(userId, "ALL", cursor, 2L);
+
+        assertEquals(1, bookings.size());
+        assertEquals(6L, bookings.get(0).getId());
+    }
+
+    @Test
+    public void getAllByOwnerIdAfterCursorWaiting() {
+        Long ownerId = 1L;
+        User owner = new User(ownerId);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        String cursor = new BookingCursor(start, 7L).encode();
+        Booking booking = new Booking();
+        booking.setId(5L);
+        booking.setStart(start.minusHours(1));
+
+        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(bookingRepository.seekByOwnerAndStatus(ownerId, BookingStatus.WAITING, start, 7L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(booking));
+
+        List<BookingDto> bookings = bookingService.getAllByOwnerIdAfter(ownerId, "WAITING", cursor, 2L);
+
+        assertEquals(1, bookings.size());
+        assertEquals(5L, bookings.get(0).getId());
+    }
+
+    @Test
+    public void getAllByUserIdAfterInvalidCursor() {
+        Long userId = 1L;
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User(userId)));
+
+        assertThrows(BadRequestException.class, () -> bookingService.getAllByUserIdAfter(userId, "ALL", "not-a-cursor", 2L));
+        verifyNoInteractions(bookingRepository);
     }
 
+    @Test
+    void timeStatesAreSortedAgainstTheStartOfTheSecond() {
+        LocalDateTime second = LocalDateTime.of(2026, 10, 18, 12, 0);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L)));
+
+        bookingService.getAllByUserId(1L, "CURRENT", 0L, 2L);
+
+        verify(bookingRepository).findBookingByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDescIdDesc(1L, second,
+                second, OffsetPageRequest.of(0, 2));
+    }
+
+    @Test
+    void timeListingIsSharedWithinTheSecond() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L)));
+
+        bookingService.getAllByOwnerId(1L, "PAST", 0L, 2L);
+        bookingService.getAllByOwnerId(1L, "PAST", 0L, 2L);
+        bookingService.getAllByOwnerId(1L, "PAST", 2L, 2L);
+        bookingService.getAllByOwnerId(1L, "ALL", 0L, 2L);
+        bookingService.getAllByOwnerId(1L, "ALL", 0L, 2L);
+
+        verify(bookingRepository, times(2)).findBookingByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(eq(1L), any(), any());
+        verify(bookingRepository, times(2)).findBookingByItemOwnerIdOrderByStartDescIdDesc(eq(1L), any());
+        // a user deleted meanwhile is still noticed
+        verify(userRepository, times(5)).findById(1L);
+    }
+
+    @Test
+    void timeListingIsReloadedAfterBookingIsWritten() {
+        User owner = new User(1L);
+        Item item = new Item();
+        item.setOwner(owner);
+        Booking booking = new Booking(5L, LocalDateTime.now(clock), LocalDateTime.now(clock).plusHours(1), item,
+                new User(2L), BookingStatus.WAITING);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(bookingRepository.findById(5L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(booking)).thenReturn(booking);
+
+        bookingService.getAllByOwnerId(1L, "FUTURE", 0L, 2L);
+        bookingService.setApprove(1L, false, 5L);
+        bookingService.getAllByOwnerId(1L, "FUTURE", 0L, 2L);
+
+        verify(bookingRepository, times(2)).findBookingByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(eq(1L), any(),
+                any());
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StatementCountInterceptorTest {
+    private final StatementCounter counter = new StatementCounter();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementCountInterceptor interceptor = new StatementCountInterceptor(counter, registry);
+
+    @Test
+    void recordsStatementsOfTheRequestUnderItsPattern() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{itemId}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        counter.inspect("select 1");
+        counter.inspect("select 2");
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        DistributionSummary summary = registry.get(StatementCountInterceptor.METRIC)
+                .tag("method", "GET")
+                .tag("uri", "/items/{itemId}")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+
+    @Test
+    void statementsOutsideRequestsAreNotCounted() {
+        counter.inspect("select 1");
+
+        assertEquals(-1, counter.stop());
+        assertNull(registry.find(StatementCountInterceptor.METRIC).summary());
+    }
+}
@@ -7,12 +7,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.model.CommentText;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.util.Constants;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -66,6 +70,24 @@ class ItemControllerTest {
 
 
 
+    @Test
+    public void testAddItems() throws Exception {
+        ItemRequestDto first = new ItemRequestDto(1L, "Drill", "Cordless drill", true, null);
+        ItemRequestDto second = new ItemRequestDto(2L, "Saw", "Hand saw", true, 5L);
+
+        when(itemService.addItems(any(), any(Long.class))).thenReturn(List.of(first, second));
+
+        mockMvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", 123L)
+                        .content("[{\"name\":\"Drill\",\"description\":\"Cordless drill\",\"available\":true}," +
+                                "{\"name\":\"Saw\",\"description\":\"Hand saw\",\"available\":true,\"requestId\":5}]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[1].requestId").value(5L));
+    }
+
     @Test
     public void testAddItem_nullRequestId_returnsOk() throws Exception {
         mockMvc.perform(post("/items")
@@ -211,7 +233,7 @@ class ItemControllerTest {
         itemDtoList.add(item2);
         String searchText = "Test";
 
-        when(itemService.searchItemsByName(any(String.class))).thenReturn(itemDtoList);
+        when(itemService.searchItemsByName(searchText, 0L, 10L)).thenReturn(itemDtoList);
         mockMvc.perform(get("/items/search")
                         .param("text", searchText))
                 .andExpect(status().isOk())
@@ -248,4 +270,46 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.text").value("Test Comment"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testGetCommentsFullPageHasNextCursor() throws Exception {
+        CommentDto newest = new CommentDto(9L, "newest", "author", null);
+        CommentDto older = new CommentDto(7L, "older", "author", null);
+        String cursor = new CommentCursor(12L).encode();
+        when(itemService.getComments(1L, cursor, 2L)).thenReturn(List.of(newest, older));
+
+        mockMvc.perform(get("/items/{id}/comments", 1L)
+                        .param("size", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(9L))
+                .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, new CommentCursor(7L).encode()));
+    }
+
+    @Test
+    void testGetCommentsLastPageHasNoCursor() throws Exception {
+        when(itemService.getComments(1L, null, 10L)).thenReturn(List.of(new CommentDto(1L, "only", "author", null)));
+
+        mockMvc.perform(get("/items/{id}/comments", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(Constants.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetFreeSlots() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(itemService.getFreeSlots(1L, from, to))
+                .thenReturn(List.of(new FreeSlotDto(from, from.plusHours(2)), new FreeSlotDto(from.plusHours(5), to)));
+
+        mockMvc.perform(get("/items/{id}/availability", 1L)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-02T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].start").value("2030-01-01T10:00:00"))
+                .andExpect(jsonPath("$[0].end").value("2030-01-01T12:00:00"))
+                .andExpect(jsonPath("$[1].end").value("2030-01-02T10:00:00"));
+    }
+}
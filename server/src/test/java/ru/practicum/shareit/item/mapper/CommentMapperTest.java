@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class CommentMapperTest {
+
+    @Autowired
+    private CommentMapper commentMapper;
+
+    @Test
+    public void testToDto() {
+        LocalDateTime created = LocalDateTime.now();
+        Comment comment = new Comment();
+        comment.setId(1L);
+        comment.setText("Test comment");
+        comment.setUser(new User(2L, "John", "john@mail.com"));
+        comment.setCreated(created);
+        CommentDto commentDto = commentMapper.toDto(comment);
+
+        assertNotNull(commentDto);
+        assertEquals(1L, commentDto.getId());
+        assertEquals("Test comment", commentDto.getText());
+        assertEquals("John", commentDto.getAuthorName());
+        assertEquals(created, commentDto.getCreated());
+    }
+
+    @Test
+    public void testToDtoWithoutAuthor() {
+        Comment comment = new Comment();
+        comment.setText("Test comment");
+
+        assertNull(commentMapper.toDto(comment).getAuthorName());
+    }
+}
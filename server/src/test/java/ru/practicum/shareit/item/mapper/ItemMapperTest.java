@@ -8,9 +8,11 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
@@ -33,7 +35,7 @@ class ItemMapperTest {
 
     @Test
     public void testToItem() {
-        ItemDto itemDto = new ItemDto(1L, "Test Item", "Test Description", true, null, null, null);
+        ItemDto itemDto = new ItemDto(1L, "Test Item", "Test Description", true, null, null, null, null, null);
         Item item = itemMapper.toItem(itemDto);
 
         assertNotNull(item);
@@ -54,4 +56,26 @@ class ItemMapperTest {
         assertEquals(requestDto.getDescription(), item.getDescription());
         assertEquals(requestDto.getAvailable(), item.getAvailable());
     }
+
+    @Test
+    public void testToRequestDto() {
+        Request request = new Request("Need an item", null);
+        request.setId(123L);
+        Item item = new Item(1L, "Test Item", "Test Description", true, null, request);
+        ItemRequestDto requestDto = itemMapper.toRequestDto(item);
+
+        assertNotNull(requestDto);
+        assertEquals(item.getId(), requestDto.getId());
+        assertEquals(item.getName(), requestDto.getName());
+        assertEquals(item.getDescription(), requestDto.getDescription());
+        assertEquals(item.getAvailable(), requestDto.getAvailable());
+        assertEquals(123L, requestDto.getRequestId());
+    }
+
+    @Test
+    public void testToRequestDtoWithoutRequest() {
+        Item item = new Item(1L, "Test Item", "Test Description", true, null, null);
+
+        assertNull(itemMapper.toRequestDto(item).getRequestId());
+    }
 }
\ No newline at end of file
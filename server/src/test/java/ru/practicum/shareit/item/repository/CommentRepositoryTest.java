@@ -1,18 +1,26 @@
 package ru.practicum.shareit.item.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemCommentView;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class CommentRepositoryTest {
@@ -23,6 +31,8 @@ class CommentRepositoryTest {
     private ItemRepository itemRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private EntityManager em;
 
     @Test
     @DirtiesContext
@@ -85,4 +95,100 @@ class CommentRepositoryTest {
         assertEquals(0, comments.size());
         assertNotNull(comments);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DirtiesContext
+    void findLatestCommentsByItemIdInCapsEachItem() {
+        User user = new User();
+        user.setName("author");
+        userRepository.save(user);
+        Item item = new Item();
+        item.setOwner(user);
+        itemRepository.save(item);
+        Item item2 = new Item();
+        item2.setOwner(user);
+        itemRepository.save(item2);
+        Item otherItem = new Item();
+        otherItem.setOwner(user);
+        itemRepository.save(otherItem);
+        LocalDateTime created = LocalDateTime.of(2026, 10, 18, 12, 0);
+        List<Comment> comments = new ArrayList<>();
+        for (Item commented : List.of(item, item2, item, otherItem, item)) {
+            Comment comment = new Comment();
+            comment.setText("text");
+            comment.setItem(commented);
+            comment.setUser(user);
+            comment.setCreated(created);
+            comments.add(commentRepository.save(comment));
+        }
+
+        List<ItemCommentView> latest = commentRepository.findLatestCommentsByItemIdIn(
+                List.of(item.getId(), item2.getId()), 2);
+
+        assertEquals(List.of(comments.get(1).getId(), comments.get(2).getId(), comments.get(4).getId()),
+                latest.stream().map(ItemCommentView::getId).collect(Collectors.toList()));
+        assertEquals(item2.getId(), latest.get(0).getItemId());
+        assertEquals(item.getId(), latest.get(1).getItemId());
+        assertEquals("text", latest.get(0).getText());
+        assertEquals("author", latest.get(0).getAuthorName());
+        assertEquals(created, latest.get(0).getCreated());
+    }
+
+    @Test
+    @DirtiesContext
+    void latestCommentsComeNewestFirstWithTheirAuthor() {
+        User user = new User();
+        user.setName("author");
+        userRepository.save(user);
+        Item item = new Item();
+        item.setOwner(user);
+        itemRepository.save(item);
+        List<Comment> saved = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Comment comment = new Comment();
+            comment.setItem(item);
+            comment.setUser(user);
+            saved.add(commentRepository.save(comment));
+        }
+        em.flush();
+        em.clear();
+
+        List<Comment> first = commentRepository.findLatestWithAuthorByItemId(item.getId(), PageRequest.of(0, 2));
+        List<Comment> next = commentRepository.seekWithAuthorByItemId(item.getId(), first.get(1).getId(),
+                PageRequest.of(0, 2));
+        List<Comment> last = commentRepository.seekWithAuthorByItemId(item.getId(), next.get(1).getId(),
+                PageRequest.of(0, 2));
+
+        assertEquals(List.of(saved.get(4).getId(), saved.get(3).getId()), ids(first));
+        assertEquals(List.of(saved.get(2).getId(), saved.get(1).getId()), ids(next));
+        assertEquals(List.of(saved.get(0).getId()), ids(last));
+        assertTrue(Hibernate.isInitialized(first.get(0).getUser()));
+        assertEquals("author", first.get(0).getUser().getName());
+    }
+
+    @Test
+    @DirtiesContext
+    void latestAuthorVersionsFollowRenames() {
+        User user = new User();
+        userRepository.save(user);
+        Item item = new Item();
+        item.setOwner(user);
+        itemRepository.save(item);
+
+        assertTrue(commentRepository.findLatestAuthorVersionsByItemId(item.getId(), PageRequest.of(0, 10)).isEmpty());
+
+        Comment comment = new Comment();
+        comment.setItem(item);
+        comment.setUser(user);
+        commentRepository.save(comment);
+        user.setName("renamed");
+        userRepository.flush();
+
+        assertEquals(List.of(1L), commentRepository.findLatestAuthorVersionsByItemId(item.getId(),
+                PageRequest.of(0, 10)));
+    }
+
+    private static List<Long> ids(List<Comment> comments) {
+        return comments.stream().map(Comment::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,256 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// the same items saved to the items table and to the in-memory store must come back from the same queries in the
+// same order; items are compared by the order they were saved in, the stores hand out their own ids.
+// Dirties the context for the repository tests after it, which expect their sequences to start at 1
+@DataJpaTest
+@DirtiesContext
+class InMemoryItemRepositoryParityTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private EntityManager em;
+
+    private InMemoryItemRepository memory;
+    private User owner;
+    private User otherOwner;
+    private Request request;
+    private final List<Long> databaseIds = new ArrayList<>();
+    private final List<Long> memoryIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        memory = new InMemoryItemRepository(userRepository);
+        owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        otherOwner = userRepository.save(new User(null, "other", "other@mail.com"));
+        request = requestRepository.save(new Request(null, "need a drill", otherOwner, LocalDateTime.now()));
+        save("Drill", "electric drill", true, owner, null);
+        save("Cordless drill", "battery", true, otherOwner, request);
+        save("Hammer", "for the drill bits", true, owner, null);
+        save("Drill press", "heavy", false, owner, request);
+        save("50% off saw", "under_score", true, otherOwner, null);
+        save("Ladder", "tall", true, owner, request);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void itemsOfOwner() {
+        for (Long ownerId : List.of(owner.getId(), otherOwner.getId(), -1L)) {
+            assertParity(itemRepository.findItemsByOwnerIdOrderById(ownerId),
+                    memory.findItemsByOwnerIdOrderById(ownerId));
+        }
+    }
+
+    @Test
+    void itemsOfRequests() {
+        List<Long> requestIds = List.of(request.getId(), -1L);
+        // the derived query has no order, the in-memory one lists by id
+        List<Item> database = new ArrayList<>(itemRepository.findItemsByRequestIdIn(requestIds));
+        database.sort(Comparator.comparing(Item::getId));
+        assertParity(database, memory.findItemsByRequestIdIn(requestIds));
+    }
+
+    @Test
+    void search() {
+        for (String pattern : List.of("drill", "dri", "bits", "ill", "50\\%", "under\\_", "\\%", "nothing")) {
+            assertSearchParity(pattern, 0, 10);
+        }
+        assertSearchParity("drill", 1, 2);
+        assertSearchParity("drill", 5, 2);
+    }
+
+    @Test
+    void searchAfterUpdateAndDelete() {
+        update(0, new Item("Anvil", null));
+        for (ItemRepository repository : List.of(itemRepository, memory)) {
+            Long id = (repository == memory ? memoryIds : databaseIds).get(3);
+            Item item = repository.findById(id).orElseThrow();
+            item.setAvailable(true);
+            repository.save(item);
+        }
+        em.flush();
+        delete(2);
+
+        assertSearchParity("drill", 0, 10);
+        assertSearchParity("anvil", 0, 10);
+        assertParity(itemRepository.findItemsByOwnerIdOrderById(owner.getId()),
+                memory.findItemsByOwnerIdOrderById(owner.getId()));
+    }
+
+    @Test
+    void sortedListings() {
+        for (Sort sort : List.of(Sort.by("name"),
+                Sort.by(Sort.Order.desc("available"), Sort.Order.asc("name")),
+                Sort.by(Sort.Order.asc("owner.name"), Sort.Order.desc("id")),
+                Sort.by("owner").and(Sort.by("description").descending()),
+                Sort.by(Sort.Order.asc("name").ignoreCase()))) {
+            assertParity(itemRepository.findAll(sort), memory.findAll(sort));
+            Pageable page = PageRequest.of(1, 2, sort);
+            assertParity(itemRepository.findAll(page).getContent(), memory.findAll(page).getContent());
+            assertEquals(itemRepository.findAll(page).getTotalElements(), memory.findAll(page).getTotalElements());
+        }
+        assertThrows(PropertyReferenceException.class, () -> itemRepository.findAll(Sort.by("price")));
+        assertThrows(PropertyReferenceException.class, () -> memory.findAll(Sort.by("price")));
+    }
+
+    @Test
+    void queriesByExample() {
+        // a probe's primitive version is 0, so the updated item only matches where the version is ignored
+        for (ItemRepository repository : List.of(itemRepository, memory)) {
+            Long id = (repository == memory ? memoryIds : databaseIds).get(3);
+            Item item = repository.findById(id).orElseThrow();
+            item.setAvailable(true);
+            repository.save(item);
+        }
+        em.flush();
+        Item drill = new Item(null, "drill", null, null, null, null);
+        Item ownItem = new Item(null, null, null, null, new User(owner.getId()), null);
+        List<Example<Item>> examples = List.of(
+                Example.of(new Item(null, "Drill", null, null, null, null)),
+                Example.of(drill, ExampleMatcher.matching()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING)
+                        .withIgnoreCase()),
+                Example.of(drill, ExampleMatcher.matching()
+                        .withMatcher("name", matcher -> matcher.startsWith().ignoreCase())),
+                Example.of(new Item(null, null, "BITS", null, null, null), ExampleMatcher.matching()
+                        .withMatcher("description", matcher -> matcher.endsWith().ignoreCase())),
+                Example.of(new Item(null, "Ladder", null, false, null, null), ExampleMatcher.matchingAny()
+                        .withIgnorePaths("version")),
+                Example.of(ownItem, ExampleMatcher.matching().withIgnorePaths("owner.version")),
+                Example.of(ownItem),
+                Example.of(new Item(null, null, null, true, null, null)),
+                Example.of(new Item(null, null, null, true, null, null), ExampleMatcher.matching()
+                        .withIncludeNullValues()
+                        .withIgnorePaths("id", "name", "description", "owner")),
+                Example.of(new Item(null, "DRILL", null, null, null, null), ExampleMatcher.matching()
+                        .withTransformer("name", name -> name.map(value -> value.toString()
+                                .toLowerCase(Locale.ROOT)))
+                        .withIgnoreCase()),
+                Example.of(new Item(), ExampleMatcher.matchingAny().withIgnorePaths("version")));
+        Sort byName = Sort.by("name");
+        for (Example<Item> example : examples) {
+            assertParity(itemRepository.findAll(example), memory.findAll(example));
+            assertParity(itemRepository.findAll(example, byName), memory.findAll(example, byName));
+            assertParity(itemRepository.findAll(example, PageRequest.of(0, 2, byName)).getContent(),
+                    memory.findAll(example, PageRequest.of(0, 2, byName)).getContent());
+            assertEquals(itemRepository.count(example), memory.count(example));
+            assertEquals(itemRepository.exists(example), memory.exists(example));
+        }
+        assertParity(List.of(itemRepository.findOne(examples.get(0)).orElseThrow()),
+                List.of(memory.findOne(examples.get(0)).orElseThrow()));
+        assertThrows(IncorrectResultSizeDataAccessException.class, () -> itemRepository.findOne(examples.get(1)));
+        assertThrows(IncorrectResultSizeDataAccessException.class, () -> memory.findOne(examples.get(1)));
+    }
+
+    @Test
+    void fluentQueriesByExample() {
+        Example<Item> available = Example.of(new Item(null, null, null, true, null, null));
+        Sort byName = Sort.by("name").descending();
+        assertEquals(names(itemRepository.findBy(available, query -> query.sortBy(byName).as(ItemName.class).all())),
+                names(memory.findBy(available, query -> query.sortBy(byName).as(ItemName.class).all())));
+        Page<ItemName> databasePage = itemRepository.findBy(available, query -> query.sortBy(byName)
+                .as(ItemName.class)
+                .page(PageRequest.of(1, 2)));
+        Page<ItemName> memoryPage = memory.findBy(available, query -> query.sortBy(byName)
+                .as(ItemName.class)
+                .page(PageRequest.of(1, 2)));
+        assertEquals(names(databasePage.getContent()), names(memoryPage.getContent()));
+        assertEquals(databasePage.getTotalElements(), memoryPage.getTotalElements());
+        Item databaseFirst = itemRepository.findBy(available, query -> query.sortBy(byName).firstValue());
+        Item memoryFirst = memory.findBy(available, query -> query.sortBy(byName).firstValue());
+        assertParity(List.of(databaseFirst), List.of(memoryFirst));
+        long databaseCount = itemRepository.findBy(available, FluentQuery.FetchableFluentQuery::count);
+        long memoryCount = memory.findBy(available, FluentQuery.FetchableFluentQuery::count);
+        assertEquals(databaseCount, memoryCount);
+        long databaseStreamed = itemRepository.findBy(available, query -> query.project("name").stream().count());
+        long memoryStreamed = memory.findBy(available, query -> query.project("name").stream().count());
+        assertEquals(databaseStreamed, memoryStreamed);
+        assertThrows(IncorrectResultSizeDataAccessException.class,
+                () -> memory.findBy(available, FluentQuery.FetchableFluentQuery::oneValue));
+    }
+
+    private void save(String name, String description, boolean available, User owner, Request request) {
+        databaseIds.add(itemRepository.save(new Item(null, name, description, available, owner, request)).getId());
+        memoryIds.add(memory.add(new Item(null, name, description, available, owner, request)).getId());
+    }
+
+    private void update(int item, Item changes) {
+        Item saved = itemRepository.findById(databaseIds.get(item)).orElseThrow();
+        itemRepository.save(InMemoryItemRepository.checkUpdatesAndUpdateItem(changes, saved));
+        em.flush();
+        memory.update(changes, memoryIds.get(item), saved.getOwner().getId());
+    }
+
+    private void delete(int item) {
+        itemRepository.deleteById(databaseIds.get(item));
+        em.flush();
+        memory.deleteById(memoryIds.get(item));
+    }
+
+    private void assertParity(List<Item> database, List<Item> memory) {
+        assertEquals(describe(database, databaseIds), describe(memory, memoryIds));
+    }
+
+    private void assertSearchParity(String pattern, int from, int size) {
+        assertEquals(positions(itemRepository.searchAvailableItemIds(pattern, OffsetPageRequest.of(from, size)),
+                        databaseIds),
+                positions(memory.searchAvailableItemIds(pattern, OffsetPageRequest.of(from, size)), memoryIds),
+                pattern);
+    }
+
+    private static List<String> describe(List<Item> items, List<Long> ids) {
+        return items.stream()
+                .map(item -> "#" + ids.indexOf(item.getId()) + " " + item.getName() + " " + item.getAvailable())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<ItemName> items) {
+        return items.stream().map(ItemName::getName).collect(Collectors.toList());
+    }
+
+    private static List<Integer> positions(List<Long> found, List<Long> ids) {
+        return found.stream().map(ids::indexOf).collect(Collectors.toList());
+    }
+
+    private interface ItemName {
+        String getName();
+    }
+}
@@ -11,7 +11,14 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -195,4 +202,66 @@ class InMemoryItemRepositoryTest {
         assertEquals(0, empty.size());
     }
 
-}
\ No newline at end of file
+    @Test
+    void searchRanksNameMatchesFirst() {
+        repository.add(Item.builder().name("hand drill").description("tool").available(true).build());
+        repository.add(Item.builder().name("bits").description("for a DRILL").available(true).build());
+        repository.add(Item.builder().name("Drill").description("tool").available(true).build());
+
+        List<Item> found = repository.searchByName("drill");
+
+        assertEquals(List.of(3L, 1L, 2L), found.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void deleteRemovesItemFromOwnerIndex() {
+        User owner = new User(1L);
+        repository.add(Item.builder().owner(owner).build());
+        repository.add(Item.builder().owner(owner).build());
+
+        repository.deleteById(1L);
+
+        assertEquals(List.of(2L), repository.getAllUserItems(1L).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+        assertThrows(NotFoundException.class, () -> repository.deleteById(1L));
+    }
+
+    @Test
+    void storedItemIsNotSharedWithCaller() {
+        Item item = repository.add(Item.builder().name("name").available(true).build());
+        item.setName("changed");
+
+        assertEquals("name", repository.getById(0L, 1L).getName());
+        assertEquals(1, repository.searchByName("name").size());
+    }
+
+    @Test
+    void concurrentAddsGetDistinctIdsAndAreIndexed() throws InterruptedException {
+        int threads = 8;
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            User owner = new User((long) i);
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < perThread; j++) {
+                    repository.add(Item.builder().owner(owner).build());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Set<Long> ids = new HashSet<>();
+        for (long owner = 0; owner < threads; owner++) {
+            List<Item> items = repository.getAllUserItems(owner);
+            assertEquals(perThread, items.size());
+            items.forEach(item -> ids.add(item.getId()));
+        }
+        assertEquals(threads * perThread, ids.size());
+    }
+}
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -9,7 +11,9 @@ import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
 
+import javax.persistence.EntityManager;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +28,29 @@ class ItemRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private RequestRepository requestRepository;
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    @DirtiesContext
+    void saveAllBatchesInserts() {
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(new Item(null, "item " + i, "description", true, owner, null));
+        }
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        repository.saveAll(items);
+        em.flush();
+
+        // three sequence calls cover the 120 ids, the inserts go out in batches of 50
+        assertTrue(statistics.getPrepareStatementCount() < 10,
+                () -> statistics.getPrepareStatementCount() + " statements for 120 inserts");
+        assertEquals(120, repository.findItemsByOwnerIdOrderById(owner.getId()).size());
+    }
 
     @Test
     @DirtiesContext
@@ -310,4 +337,35 @@ class ItemRepositoryTest {
         assertEquals(2, request2.getId());
         assertNull(save);
     }
+
+    @Test
+    @DirtiesContext
+    void searchAvailableItemIdsRanksNameMatchesFirst() {
+        Item inDescription = saveAvailable("Дрель", "аккумуляторная отвертка");
+        Item inName = saveAvailable("Большая отвертка", "крестовая");
+        Item namePrefix = saveAvailable("Отвертка", "плоская");
+        Item unavailable = new Item("Отвертка", "сломана");
+        unavailable.setAvailable(false);
+        repository.save(unavailable);
+
+        List<Long> ids = repository.searchAvailableItemIds("отвертка", OffsetPageRequest.of(0, 10));
+
+        assertEquals(List.of(namePrefix.getId(), inName.getId(), inDescription.getId()), ids);
+        assertEquals(List.of(inName.getId()), repository.searchAvailableItemIds("отвертка", OffsetPageRequest.of(1, 1)));
+    }
+
+    @Test
+    @DirtiesContext
+    void searchAvailableItemIdsTreatsWildcardsLiterally() {
+        Item percent = saveAvailable("Скидка 50%", "описание");
+        saveAvailable("Скидка 500", "описание");
+
+        assertEquals(List.of(percent.getId()), repository.searchAvailableItemIds("50\\%", OffsetPageRequest.of(0, 10)));
+    }
+
+    private Item saveAvailable(String name, String description) {
+        Item item = new Item(name, description);
+        item.setAvailable(true);
+        return repository.save(item);
+    }
 }
\ No newline at end of file
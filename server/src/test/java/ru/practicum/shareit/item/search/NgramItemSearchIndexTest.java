@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NgramItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    private NgramItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NgramItemSearchIndex(itemRepository);
+    }
+
+    @Test
+    void rebuildIndexesStoredItems() {
+        when(itemRepository.findAll()).thenReturn(List.of(item(1L, "Дрель", "Простая дрель", true)));
+
+        index.rebuild();
+
+        assertEquals(List.of(1L), index.search("ДРЕЛЬ", 0, 10));
+    }
+
+    @Test
+    void searchRanksNamePrefixThenNameThenDescription() {
+        index.index(item(1L, "Аккумулятор", "для отвертки", true));
+        index.index(item(2L, "Большая отвертка", "крестовая", true));
+        index.index(item(3L, "Отвертка", "плоская", true));
+        index.index(item(4L, "Молоток", "тяжелый", true));
+
+        assertEquals(List.of(3L, 2L, 1L), index.search("оТвЕрТк", 0, 10));
+    }
+
+    @Test
+    void searchPaginatesRankedResults() {
+        index.index(item(1L, "Отвертка 1", "", true));
+        index.index(item(2L, "Отвертка 2", "", true));
+        index.index(item(3L, "Отвертка 3", "", true));
+
+        assertEquals(List.of(2L), index.search("отвертка", 1, 1));
+        assertTrue(index.search("отвертка", 3, 10).isEmpty());
+    }
+
+    @Test
+    void searchShorterThanGramScansAllDocuments() {
+        index.index(item(1L, "Дрель", "", true));
+        index.index(item(2L, "Пила", "", true));
+
+        assertEquals(List.of(1L), index.search("др", 0, 10));
+        assertEquals(List.of(2L), index.search("а", 0, 10));
+    }
+
+    @Test
+    void searchRequiresWholeSubstringNotJustGrams() {
+        index.index(item(1L, "абвгд", "", true));
+
+        assertTrue(index.search("абвабв", 0, 10).isEmpty());
+        assertTrue(index.search("вгдв", 0, 10).isEmpty());
+    }
+
+    @Test
+    void reindexReplacesOldTextAndDropsUnavailableItems() {
+        index.index(item(1L, "Дрель", "", true));
+        index.index(item(1L, "Пила", "", true));
+
+        assertTrue(index.search("дрель", 0, 10).isEmpty());
+        assertEquals(List.of(1L), index.search("пила", 0, 10));
+
+        index.index(item(1L, "Пила", "", false));
+
+        assertTrue(index.search("пила", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchEmptyTextReturnsNothing() {
+        index.index(item(1L, "Дрель", "", true));
+
+        assertTrue(index.search("", 0, 10).isEmpty());
+    }
+
+    private Item item(Long id, String name, String description, Boolean available) {
+        Item item = new Item(name, description);
+        item.setId(id);
+        item.setAvailable(available);
+        return item;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.ClockConfig;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.mapper.CommentMapperImpl;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
+import ru.practicum.shareit.item.model.CommentText;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.NgramItemSearchIndex;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestTime;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// several past bookers comment on one item at once, each comment commits on its own as behind the controller
+@DataJpaTest
+@Import({ItemServiceImpl.class, ItemMapperImpl.class, CommentMapperImpl.class,
+        NgramItemSearchIndex.class, RequestTime.class, ClockConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemCommentConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private ExecutorService executor;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        item = itemRepository.save(new Item(null, "drill", "description", true, owner, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCommentsAreAllCounted() throws Exception {
+        List<Long> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User booker = userRepository.save(new User(null, "booker " + i, "booker" + i + "@mail.com"));
+            LocalDateTime start = LocalDateTime.now().minusDays(2);
+            bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker, BookingStatus.APPROVED));
+            bookers.add(booker.getId());
+        }
+
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<CommentDto>> futures = new ArrayList<>();
+        for (Long booker : bookers) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return itemService.addComment(booker, item.getId(), new CommentText("text"));
+            }));
+        }
+        ready.countDown();
+        List<CommentDto> comments = new ArrayList<>();
+        for (Future<CommentDto> future : futures) {
+            comments.add(future.get(30, TimeUnit.SECONDS));
+        }
+
+        Item counted = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals(THREADS, counted.getCommentCount());
+        // the column rounds to microseconds, the cached item may still hold nanoseconds
+        LocalDateTime latest = comments.stream().map(CommentDto::getCreated).max(LocalDateTime::compareTo).orElseThrow();
+        assertTrue(Duration.between(latest, counted.getLastCommentAt()).abs().toNanos() < 1000);
+        assertEquals(comments.stream().map(CommentDto::getId).sorted(Comparator.reverseOrder())
+                        .collect(Collectors.toList()),
+                itemService.getComments(item.getId(), null, 10L).stream()
+                        .map(CommentDto::getId).collect(Collectors.toList()));
+    }
+}
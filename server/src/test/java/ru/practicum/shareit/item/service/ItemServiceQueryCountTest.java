@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.ClockConfig;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.mapper.CommentMapperImpl;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
+import ru.practicum.shareit.item.model.CommentText;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.NgramItemSearchIndex;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.RequestTime;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ItemServiceImpl.class, ItemMapperImpl.class, CommentMapperImpl.class,
+        NgramItemSearchIndex.class, RequestTime.class, ClockConfig.class})
+class ItemServiceQueryCountTest {
+    private static final int BOOKINGS = 30;
+
+    @Autowired
+    private ItemService service;
+    @Autowired
+    private TestEntityManager em;
+
+    private Long bookerId;
+    private Long strangerId;
+    private Long itemId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User owner = em.persist(new User(null, "owner", "owner@mail.com"));
+        User booker = em.persist(new User(null, "booker", "booker@mail.com"));
+        User stranger = em.persist(new User(null, "stranger", "stranger@mail.com"));
+        Item item = em.persist(new Item(null, "drill", "description", true, owner, null));
+        // many finished bookings of the same item, none of them needs to be read
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = LocalDateTime.now().minusDays(i + 2);
+            em.persist(new Booking(null, start, start.plusDays(1), item, booker, BookingStatus.APPROVED));
+        }
+        em.flush();
+        em.clear();
+
+        bookerId = booker.getId();
+        strangerId = stranger.getId();
+        itemId = item.getId();
+        statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void addCommentUsesFixedNumberOfStatements() {
+        CommentDto comment = service.addComment(bookerId, itemId, new CommentText("text"));
+        em.flush();
+
+        assertEquals("booker", comment.getAuthorName());
+        assertEquals(0, statistics.getEntityStatistics(Booking.class.getName()).getLoadCount());
+        // eligibility, item row lock, next comment id, author name (a users cache hit once warm), comment insert,
+        // comment count update
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void addCommentWithoutBookingStopsAfterEligibility() {
+        assertThrows(BadRequestException.class,
+                () -> service.addComment(strangerId, itemId, new CommentText("text")));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -6,36 +6,54 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriodView;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.CommentMapperImpl;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.CommentText;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemCommentView;
+import ru.practicum.shareit.item.model.ItemVersionView;
 import ru.practicum.shareit.item.repository.CommentRepository;
-import ru.practicum.shareit.item.repository.InMemoryItemRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestTime;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,10 +68,12 @@ class ItemServiceTest {
     private CommentRepository commentRepository;
     @Mock
     private RequestRepository requestRepository;
+    @Mock
+    private ItemSearchIndex searchIndex;
     private ItemService itemService;
     private ItemMapper mapper;
-    private final ModelMapper modelMapper = new ModelMapper();
-    private final InMemoryItemRepository memoryItemRepository = new InMemoryItemRepository(userRepository);
+    private final CommentMapper commentMapper = new CommentMapperImpl();
+    private final Clock clock = Clock.fixed(Instant.parse("2026-10-18T12:00:00.700Z"), ZoneOffset.UTC);
 
     @BeforeEach
     public void setUp() {
@@ -84,17 +104,28 @@ class ItemServiceTest {
                 item.setAvailable(itemDto.getAvailable());
                 return item;
             }
+
+            public ItemRequestDto toRequestDto(Item item) {
+                ItemRequestDto itemDto = new ItemRequestDto();
+                itemDto.setId(item.getId());
+                itemDto.setName(item.getName());
+                itemDto.setDescription(item.getDescription());
+                itemDto.setAvailable(item.getAvailable());
+                itemDto.setRequestId(item.getRequest() == null ? null : item.getRequest().getId());
+                return itemDto;
+            }
         };
 
         itemService = new ItemServiceImpl(
                 itemRepository,
                 userRepository,
-                memoryItemRepository,
                 bookingRepository,
                 mapper,
                 commentRepository,
-                modelMapper,
-                requestRepository);
+                commentMapper,
+                requestRepository,
+                searchIndex,
+                new RequestTime(clock));
     }
 
     @Test
@@ -112,6 +143,7 @@ class ItemServiceTest {
 
         ItemRequestDto added = itemService.addItem(itemRequestDto, userId);
         assertNotNull(added);
+        verify(searchIndex).index(item);
     }
 
     @Test
@@ -146,6 +178,46 @@ class ItemServiceTest {
         assertEquals(requestId, added.getRequestId());
     }
 
+    @Test
+    void addItemsSavesAllInOneCall() {
+        Long userId = 1L;
+        Long requestId = 2L;
+        ItemRequestDto first = new ItemRequestDto(null, "drill", "drill", true, requestId);
+        ItemRequestDto second = new ItemRequestDto(null, "saw", "saw", true, null);
+        Request request = new Request();
+        request.setId(requestId);
+        User user = new User(userId);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(requestRepository.findAllById(Set.of(requestId))).thenReturn(List.of(request));
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ItemRequestDto> added = itemService.addItems(List.of(first, second), userId);
+
+        assertEquals(2, added.size());
+        assertEquals(requestId, added.get(0).getRequestId());
+        assertNull(added.get(1).getRequestId());
+        verify(itemRepository, never()).save(any(Item.class));
+        verify(searchIndex, times(2)).index(any(Item.class));
+    }
+
+    @Test
+    void addItemsThrowsNotFoundForUnknownRequest() {
+        Long userId = 1L;
+        ItemRequestDto itemRequestDto = new ItemRequestDto(null, "drill", "drill", true, 99L);
+        User user = new User(userId);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(requestRepository.findAllById(Set.of(99L))).thenReturn(List.of());
+
+        Throwable exception = assertThrows(NotFoundException.class,
+                () -> itemService.addItems(List.of(itemRequestDto), userId));
+        assertEquals("Запрос с id 99 не найден", exception.getMessage());
+        verify(itemRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void updateItemTrowsNotFoundException() {
         Long userId = 1L;
@@ -188,6 +260,61 @@ class ItemServiceTest {
         assertEquals(false, updated.getAvailable());
         assertEquals("updated name", updated.getName());
         assertEquals("updated description", updated.getDescription());
+        verify(searchIndex).index(savedItem);
+    }
+
+    @Test
+    void getFreeSlotsReturnsGapsBetweenBookings() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        Item item = new Item();
+        item.setId(1L);
+        item.setAvailable(true);
+
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        // the first booking started before the window, the second and third overlap each other
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStart(1L,
+                BookingStatus.HOLDING, from, to)).thenReturn(List.of(
+                period(from.minusDays(1), from.plusDays(1)),
+                period(from.plusDays(3), from.plusDays(5)),
+                period(from.plusDays(4), from.plusDays(6))));
+
+        List<FreeSlotDto> slots = itemService.getFreeSlots(1L, from, to);
+
+        assertEquals(List.of(new FreeSlotDto(from.plusDays(1), from.plusDays(3)),
+                new FreeSlotDto(from.plusDays(6), to)), slots);
+    }
+
+    @Test
+    void getFreeSlotsDefaultsToNextThirtyDays() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setAvailable(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        List<FreeSlotDto> slots = itemService.getFreeSlots(1L, null, null);
+
+        assertEquals(1, slots.size());
+        assertEquals(slots.get(0).getStart().plusDays(30), slots.get(0).getEnd());
+    }
+
+    @Test
+    void getFreeSlotsOfUnavailableItemIsEmpty() {
+        Item item = new Item();
+        item.setAvailable(false);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        assertTrue(itemService.getFreeSlots(1L, null, null).isEmpty());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getFreeSlotsRejectsEmptyWindow() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item()));
+
+        assertThrows(BadRequestException.class, () -> itemService.getFreeSlots(1L, from, from));
+        assertThrows(NotFoundException.class, () -> itemService.getFreeSlots(2L, from, from.plusDays(1)));
     }
 
     @Test
@@ -207,7 +334,7 @@ class ItemServiceTest {
 
         when(itemRepository.getReferenceById(itemId)).thenReturn(item);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(commentRepository.findCommentByItemIdOrderById(itemId)).thenReturn(new ArrayList<>());
+        when(commentRepository.findLatestWithAuthorByItemId(eq(itemId), any(Pageable.class))).thenReturn(new ArrayList<>());
 
         ItemDto itemById = itemService.getItemById(2L, itemId);
 
@@ -217,6 +344,74 @@ class ItemServiceTest {
         assertNull(itemById.getNextBooking());
     }
 
+    @Test
+    void getItemTagAddsBookingsOnlyForOwner() {
+        Long itemId = 1L;
+        BookingView next = new BookingView() {
+            @Override
+            public Long getId() {
+                return 5L;
+            }
+
+            @Override
+            public UserView getBooker() {
+                return () -> 2L;
+            }
+        };
+
+        when(itemRepository.findVersionById(itemId)).thenReturn(Optional.of(new ItemVersionView() {
+            @Override
+            public Long getOwnerId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 3L;
+            }
+        }));
+        when(commentRepository.findLatestAuthorVersionsByItemId(eq(itemId), any(Pageable.class)))
+                .thenReturn(List.of(3L, 1L));
+        when(bookingRepository.findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(eq(itemId),
+                any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(new ArrayList<>());
+        when(bookingRepository.findByItemIdAndStartIsAfterAndStatusNotInOrderByStart(eq(itemId),
+                any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(List.of(next));
+        when(bookingRepository.findByItemIdAndStartIsBeforeAndEndIsAfterAndStatusNotInOrderByEndDesc(eq(itemId),
+                any(LocalDateTime.class), any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(new ArrayList<>());
+
+        assertEquals("i1.3.c4", itemService.getItemTag(2L, itemId));
+        assertEquals("i1.3.c4.o-.5", itemService.getItemTag(1L, itemId));
+        verify(itemRepository, never()).getReferenceById(any());
+        verify(commentRepository, never()).findLatestWithAuthorByItemId(any(), any());
+    }
+
+    @Test
+    void ownerBookingsAreSortedAgainstOneInstant() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        User owner = new User();
+        owner.setId(1L);
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(owner);
+        when(itemRepository.getReferenceById(1L)).thenReturn(item);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        itemService.getItemById(1L, 1L);
+
+        verify(bookingRepository).findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(eq(1L), eq(now), anyList());
+        verify(bookingRepository).findByItemIdAndStartIsBeforeAndEndIsAfterAndStatusNotInOrderByEndDesc(eq(1L), eq(now),
+                eq(now), anyList());
+        verify(bookingRepository).findByItemIdAndStartIsAfterAndStatusNotInOrderByStart(eq(1L), eq(now), anyList());
+    }
+
+    @Test
+    void getItemTagThrowsNotFoundException() {
+        when(itemRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemService.getItemTag(1L, 1L));
+        verifyNoInteractions(commentRepository);
+    }
+
     @Test
     void getItemByIdWithCommentsAndLastBookingBetween() {
         Long itemId = 1L;
@@ -258,7 +453,7 @@ class ItemServiceTest {
 
         when(itemRepository.getReferenceById(itemId)).thenReturn(item);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(commentRepository.findCommentByItemIdOrderById(itemId)).thenReturn(List.of(comment, comment2));
+        when(commentRepository.findLatestWithAuthorByItemId(eq(itemId), any(Pageable.class))).thenReturn(List.of(comment2, comment));
         when(bookingRepository.findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(eq(itemId),
                 any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(new ArrayList<>());
         when(bookingRepository.findByItemIdAndStartIsAfterAndStatusNotInOrderByStart(eq(itemId),
@@ -321,7 +516,7 @@ class ItemServiceTest {
 
         when(itemRepository.getReferenceById(itemId)).thenReturn(item);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(commentRepository.findCommentByItemIdOrderById(itemId)).thenReturn(List.of(comment, comment2));
+        when(commentRepository.findLatestWithAuthorByItemId(eq(itemId), any(Pageable.class))).thenReturn(List.of(comment2, comment));
         when(bookingRepository.findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(eq(itemId),
                 any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(List.of(view));
         when(bookingRepository.findByItemIdAndStartIsAfterAndStatusNotInOrderByStart(eq(itemId),
@@ -373,7 +568,7 @@ class ItemServiceTest {
 
         when(itemRepository.getReferenceById(itemId)).thenReturn(item);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(commentRepository.findCommentByItemIdOrderById(itemId)).thenReturn(List.of(comment, comment2));
+        when(commentRepository.findLatestWithAuthorByItemId(eq(itemId), any(Pageable.class))).thenReturn(List.of(comment2, comment));
 
         when(bookingRepository.findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(eq(itemId),
                 any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(new ArrayList<>());
@@ -405,28 +600,14 @@ class ItemServiceTest {
         Item item2 = new Item();
         item2.setId(itemId + 1L);
         item2.setOwner(owner);
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime before = now.minusHours(1);
-        LocalDateTime after = now.plusHours(1);
-        User booker = new User();
-        booker.setId(2L);
-        Booking booking = new Booking();
-        booking.setId(1L);
-        booking.setBooker(booker);
-        booking.setItem(item);
-        booking.setEnd(before);
-        booking.setStart(after);
-        booking.setStatus(BookingStatus.APPROVED);
 
         when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
-        when(itemRepository.getReferenceById(itemId)).thenReturn(item);
-        when(itemRepository.getReferenceById(itemId + 1L)).thenReturn(item2);
-        when(bookingRepository.findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(eq(itemId),
-                any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(new ArrayList<>());
-        when(bookingRepository.findByItemIdAndStartIsAfterAndStatusNotInOrderByStart(eq(itemId),
-                any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(new ArrayList<>());
-        when(bookingRepository.findByItemIdAndStartIsBeforeAndEndIsAfterAndStatusNotInOrderByEndDesc(eq(itemId),
-                any(LocalDateTime.class), any(LocalDateTime.class), ArgumentMatchers.anyList())).thenReturn(new ArrayList<>());
+        when(bookingRepository.findLastBookingsByItemIdIn(eq(List.of(itemId, itemId + 1L)), any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(bookingRepository.findNextBookingsByItemIdIn(eq(List.of(itemId, itemId + 1L)), any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(commentRepository.findLatestCommentsByItemIdIn(List.of(itemId, itemId + 1L), 10))
+                .thenReturn(new ArrayList<>());
 
         List<ItemDto> allUserItems = itemService.getAllUserItems(ownerId);
 
@@ -437,31 +618,93 @@ class ItemServiceTest {
         assertNull(allUserItems.get(0).getLastBooking());
         assertNull(allUserItems.get(1).getNextBooking());
         assertNull(allUserItems.get(1).getLastBooking());
+        assertTrue(allUserItems.get(0).getComments().isEmpty());
+    }
+
+    @Test
+    void getAllUserItemsWithBookingsAndComments() {
+        Long ownerId = 1L;
+        User owner = new User(ownerId);
+        User author = User.builder()
+                .id(3L)
+                .name("author")
+                .build();
+        Item item = Item.builder()
+                .id(1L)
+                .owner(owner)
+                .build();
+        Item item2 = Item.builder()
+                .id(2L)
+                .owner(owner)
+                .build();
+
+        when(itemRepository.findItemsByOwnerIdOrderById(ownerId)).thenReturn(List.of(item, item2));
+        when(bookingRepository.findLastBookingsByItemIdIn(anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(itemBookingView(1L, 10L, 2L)));
+        when(bookingRepository.findNextBookingsByItemIdIn(anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(itemBookingView(1L, 11L, 2L), itemBookingView(2L, 12L, 4L)));
+        when(commentRepository.findLatestCommentsByItemIdIn(anyList(), eq(10)))
+                .thenReturn(List.of(itemCommentView(2L, 5L, author.getName())));
+
+        List<ItemDto> allUserItems = itemService.getAllUserItems(ownerId);
+
+        assertEquals(2, allUserItems.size());
+        assertEquals(10L, allUserItems.get(0).getLastBooking().getId());
+        assertEquals(2L, allUserItems.get(0).getLastBooking().getBookerId());
+        assertEquals(11L, allUserItems.get(0).getNextBooking().getId());
+        assertTrue(allUserItems.get(0).getComments().isEmpty());
+        assertNull(allUserItems.get(1).getLastBooking());
+        assertEquals(12L, allUserItems.get(1).getNextBooking().getId());
+        assertEquals(4L, allUserItems.get(1).getNextBooking().getBookerId());
+        assertEquals(1, allUserItems.get(1).getComments().size());
+        assertEquals(5L, allUserItems.get(1).getComments().get(0).getId());
+        assertEquals("author", allUserItems.get(1).getComments().get(0).getAuthorName());
+        verify(bookingRepository, never()).findByItemIdAndEndIsBeforeAndStatusNotInOrderByEndDesc(anyLong(),
+                any(LocalDateTime.class), anyList());
+    }
+
+    @Test
+    void getAllUserItemsWithoutItems() {
+        when(itemRepository.findItemsByOwnerIdOrderById(1L)).thenReturn(new ArrayList<>());
+
+        assertTrue(itemService.getAllUserItems(1L).isEmpty());
+        verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     @Test
     void searchItemsByNameEmpty() {
-        assertEquals(new ArrayList<>(), itemService.searchItemsByName(""));
+        assertEquals(new ArrayList<>(), itemService.searchItemsByName("", 0L, 10L));
+        verifyNoInteractions(searchIndex, itemRepository);
     }
 
     @Test
     void searchItemsByNameAll() {
         Item item = new Item("name", "descripT");
+        item.setId(1L);
         Item item2 = new Item("text", "some TEXT");
+        item2.setId(2L);
 
+        when(searchIndex.search(" ", 0, 10)).thenReturn(List.of(2L, 1L));
+        when(itemRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(item, item2));
+        assertEquals(List.of(mapper.toDto(item2), mapper.toDto(item)), itemService.searchItemsByName(" ", 0L, 10L));
+    }
+
+    @Test
+    void searchItemsByNameNoMatches() {
+        when(searchIndex.search("text", 10, 5)).thenReturn(List.of());
 
-        when(itemRepository.findItemsByNameContainsIgnoreCaseAndAvailableIsTrueOrDescriptionContainsIgnoreCaseAndAvailableIsTrue(any(String.class), any(String.class)))
-                .thenReturn(List.of(item, item2));
-        assertEquals(List.of(mapper.toDto(item), mapper.toDto(item2)), itemService.searchItemsByName(" "));
+        assertTrue(itemService.searchItemsByName("text", 10L, 5L).isEmpty());
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
     void addCommentThrowsBadRequestException() {
-        when(bookingRepository.findBookingByItemIdAndBookerIdAndStatusNotInAndEndBefore(anyLong(),
-                anyLong(), ArgumentMatchers.anyList(), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        when(bookingRepository.findFinishedBookingIds(anyLong(), anyLong(), ArgumentMatchers.anyList(),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 1)))).thenReturn(List.of());
 
         assertThrows(BadRequestException.class, () -> itemService.addComment(1L,
                 1L, new CommentText("text")));
+        verify(itemRepository, never()).findLockedById(any());
     }
 
     @Test
@@ -483,26 +726,139 @@ class ItemServiceTest {
                 .id(itemId)
                 .owner(owner)
                 .build();
-        Item item2 = Item.builder()
-                .id(2L)
-                .owner(owner)
-                .build();
-        Booking booking = Booking.builder()
-                .id(1L)
-                .booker(booker)
-                .item(item)
-                .build();
-        Booking booking2 = Booking.builder()
-                .id(2L)
-                .booker(booker)
-                .item(item2)
-                .build();
-
-        when(bookingRepository.findBookingByItemIdAndBookerIdAndStatusNotInAndEndBefore(anyLong(),
-                anyLong(), ArgumentMatchers.anyList(), any(LocalDateTime.class))).thenReturn(List.of(booking, booking2));
+        when(bookingRepository.findFinishedBookingIds(anyLong(), anyLong(), ArgumentMatchers.anyList(),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 1)))).thenReturn(List.of(1L));
+        when(userRepository.getReferenceById(2L)).thenReturn(booker);
+        when(itemRepository.findLockedById(itemId)).thenReturn(Optional.of(item));
         when(commentRepository.save(any(Comment.class))).thenReturn(new Comment());
 
         CommentDto comment = itemService.addComment(2L, 1L, text);
         assertNotNull(comment);
+        assertEquals("commentator", comment.getAuthorName());
+        assertEquals(1L, item.getCommentCount());
+        assertEquals(comment.getCreated(), item.getLastCommentAt());
+        verify(itemRepository).save(item);
+    }
+
+    @Test
+    void addCommentKeepsLaterLastCommentAt() {
+        LocalDateTime later = LocalDateTime.now(clock).plusMinutes(1);
+        Item item = Item.builder()
+                .id(1L)
+                .build();
+        item.setCommentCount(4);
+        item.setLastCommentAt(later);
+        when(bookingRepository.findFinishedBookingIds(anyLong(), anyLong(), ArgumentMatchers.anyList(),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 1)))).thenReturn(List.of(1L));
+        when(userRepository.getReferenceById(2L)).thenReturn(User.builder().id(2L).build());
+        when(itemRepository.findLockedById(1L)).thenReturn(Optional.of(item));
+
+        itemService.addComment(2L, 1L, new CommentText("text"));
+
+        assertEquals(5L, item.getCommentCount());
+        assertEquals(later, item.getLastCommentAt());
+    }
+
+    @Test
+    void getCommentsStartsWithNewest() {
+        Comment comment = new Comment();
+        comment.setId(9L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item()));
+        when(commentRepository.findLatestWithAuthorByItemId(1L, PageRequest.of(0, 5))).thenReturn(List.of(comment));
+
+        List<CommentDto> comments = itemService.getComments(1L, null, 5L);
+
+        assertEquals(1, comments.size());
+        assertEquals(9L, comments.get(0).getId());
+    }
+
+    @Test
+    void getCommentsContinuesAfterCursor() {
+        Comment comment = new Comment();
+        comment.setId(6L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item()));
+        when(commentRepository.seekWithAuthorByItemId(1L, 7L, PageRequest.of(0, 5))).thenReturn(List.of(comment));
+
+        List<CommentDto> comments = itemService.getComments(1L, new CommentCursor(7L).encode(), 5L);
+
+        assertEquals(6L, comments.get(0).getId());
+        verify(commentRepository, never()).findLatestWithAuthorByItemId(any(), any());
+    }
+
+    @Test
+    void getCommentsRejectsBrokenCursor() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item()));
+
+        assertThrows(BadRequestException.class, () -> itemService.getComments(1L, "not a cursor", 5L));
+    }
+
+    @Test
+    void getCommentsOfUnknownItemThrowsNotFoundException() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemService.getComments(1L, null, 5L));
+        verifyNoInteractions(commentRepository);
+    }
+
+    private ItemBookingView itemBookingView(Long itemId, Long id, Long bookerId) {
+        return new ItemBookingView() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+        };
+    }
+
+    private ItemCommentView itemCommentView(Long itemId, Long id, String authorName) {
+        return new ItemCommentView() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getText() {
+                return "text";
+            }
+
+            @Override
+            public String getAuthorName() {
+                return authorName;
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return null;
+            }
+        };
+    }
+
+    private static BookingPeriodView period(LocalDateTime start, LocalDateTime end) {
+        return new BookingPeriodView() {
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.request.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.config.ClockConfig;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.RequestItemsDto;
+import ru.practicum.shareit.request.mapper.RequestMapperImpl;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.RequestTime;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({RequestServiceImpl.class, RequestMapperImpl.class, ItemMapperImpl.class, RequestTime.class,
+        ClockConfig.class})
+class RequestServiceQueryCountTest {
+    private static final int REQUESTS = 30;
+
+    @Autowired
+    private RequestService service;
+    @Autowired
+    private TestEntityManager em;
+
+    private Long requestorId;
+    private Long viewerId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User requestor = em.persist(new User(null, "requestor", "requestor@mail.com"));
+        User owner = em.persist(new User(null, "owner", "owner@mail.com"));
+        User viewer = em.persist(new User(null, "viewer", "viewer@mail.com"));
+        for (int i = 0; i < REQUESTS; i++) {
+            Request request = em.persist(new Request(null, "request " + i, requestor, LocalDateTime.now().minusMinutes(i)));
+            em.persist(new Item(null, "item " + i, "description", true, owner, request));
+            em.persist(new Item(null, "spare " + i, "description", true, owner, request));
+        }
+        em.flush();
+        em.clear();
+
+        requestorId = requestor.getId();
+        viewerId = viewer.getId();
+        statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void requestsGetAllUsesFixedNumberOfStatements() {
+        List<RequestItemsDto> page = service.requestsGetAll(viewerId, 0L, 20L);
+
+        assertEquals(20, page.size());
+        page.forEach(request -> assertEquals(2, request.getItems().size()));
+        // user lookup, requests page, page count, items of the whole page
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getRequestsUsesFixedNumberOfStatements() {
+        List<RequestItemsDto> requests = service.getRequests(requestorId);
+
+        assertEquals(REQUESTS, requests.size());
+        // user lookup, requests, items of all requests
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
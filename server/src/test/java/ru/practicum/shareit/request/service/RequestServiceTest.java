@@ -5,7 +5,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -14,12 +13,16 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.RequestCreateDto;
 import ru.practicum.shareit.request.dto.RequestItemsDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
 import ru.practicum.shareit.request.mapper.RequestMapper;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestTime;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -38,7 +41,7 @@ class RequestServiceTest {
     @Mock
     private RequestRepository requestRepository;
     private RequestMapper mapper;
-    private final ModelMapper modelMapper = new ModelMapper();
+    private final ItemMapper itemMapper = new ItemMapperImpl();
     private RequestService service;
 
     @BeforeEach
@@ -65,7 +68,8 @@ class RequestServiceTest {
                 userRepository,
                 itemRepository,
                 mapper,
-                modelMapper
+                itemMapper,
+                new RequestTime(Clock.systemDefaultZone())
         );
     }
 
@@ -186,6 +190,19 @@ class RequestServiceTest {
         assertEquals(2L, all.get(1).getItems().get(0).getId());
         assertEquals(1L, all.get(0).getItems().get(0).getRequestId());
         assertEquals(2L, all.get(1).getItems().get(0).getRequestId());
+        verify(itemRepository, times(1)).findItemsByRequestIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    void requestsGetAllEmptyPageSkipsItemsQuery() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+        when(requestRepository.findAllByUser_IdNotOrderByCreatedDesc(anyLong(), any(PageRequest.class)))
+                .thenReturn(Page.empty());
+
+        List<RequestItemsDto> all = service.requestsGetAll(1L, 0L, 10L);
+
+        assertTrue(all.isEmpty());
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.user.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// runs the same operations against the users table and the in-memory store and expects the same outcomes, so
+// tests and dev runs on the in-memory store see what they would see on the database. Users are referred to by the
+// order they were added in, the stores hand out their own ids
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class InMemoryUserRepositoryParityTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void addAndList() {
+        assertParity(store -> List.of(
+                store.add("name", "a@mail.com"),
+                store.add("name", "b@mail.com"),
+                store.add("other", null),
+                store.add("another", null),
+                store.all()));
+    }
+
+    @Test
+    void duplicateEmails() {
+        assertParity(store -> List.of(
+                store.add("name", "a@mail.com"),
+                store.add("name2", "a@mail.com"),
+                store.add("name3", "b@mail.com"),
+                store.update(1, null, "a@mail.com"),
+                store.update(1, null, "b@mail.com"),
+                store.all()));
+    }
+
+    @Test
+    void updates() {
+        assertParity(store -> List.of(
+                store.add("name", "a@mail.com"),
+                store.update(0, "name2", null),
+                store.update(0, null, "b@mail.com"),
+                store.update(0, "name3", "b@mail.com"),
+                store.add("other", "a@mail.com"),
+                store.get(0),
+                store.update(5, "name", "c@mail.com"),
+                store.all()));
+    }
+
+    @Test
+    void deletes() {
+        assertParity(store -> List.of(
+                store.add("name", "a@mail.com"),
+                store.add("name2", "b@mail.com"),
+                store.delete(0),
+                store.get(0),
+                store.delete(0),
+                store.add("other", "a@mail.com"),
+                store.all()));
+    }
+
+    private void assertParity(Scenario scenario) {
+        InMemoryUserRepository memory = new InMemoryUserRepository();
+        List<String> expected = scenario.run(new Store() {
+            User save(User user) {
+                return userRepository.save(user);
+            }
+
+            User change(User user) {
+                User saved = userRepository.findById(user.getId()).orElseThrow(
+                        () -> new NotFoundException("Пользователь с id " + user.getId() + " не найден"));
+                return userRepository.save(InMemoryUserRepository.checkUpdatesAndUpdateUser(user, saved));
+            }
+
+            User find(Long id) {
+                return userRepository.findById(id).orElseThrow(
+                        () -> new NotFoundException("Пользователь с id " + id + " не найден"));
+            }
+
+            void remove(Long id) {
+                userRepository.deleteById(id);
+            }
+
+            List<User> findAll() {
+                return userRepository.findAll(Sort.by("id"));
+            }
+        });
+        List<String> actual = scenario.run(new Store() {
+            User save(User user) {
+                return memory.add(user);
+            }
+
+            User change(User user) {
+                return memory.update(user);
+            }
+
+            User find(Long id) {
+                return memory.getById(id);
+            }
+
+            void remove(Long id) {
+                memory.deleteById(id);
+            }
+
+            List<User> findAll() {
+                return memory.getAll();
+            }
+        });
+        assertEquals(expected, actual);
+    }
+
+    private interface Scenario {
+        List<String> run(Store store);
+    }
+
+    // outcomes are compared as text: the user's fields with its id replaced by the order it was added in, or the
+    // kind of failure
+    private abstract static class Store {
+        private final List<Long> ids = new ArrayList<>();
+
+        abstract User save(User user);
+
+        abstract User change(User user);
+
+        abstract User find(Long id);
+
+        abstract void remove(Long id);
+
+        abstract List<User> findAll();
+
+        String add(String name, String email) {
+            return outcome(() -> {
+                User user = save(new User(null, name, email));
+                ids.add(user.getId());
+                return describe(user);
+            });
+        }
+
+        String update(int user, String name, String email) {
+            return outcome(() -> describe(change(new User(id(user), name, email))));
+        }
+
+        String get(int user) {
+            return outcome(() -> describe(find(id(user))));
+        }
+
+        String delete(int user) {
+            return outcome(() -> {
+                remove(id(user));
+                return "deleted";
+            });
+        }
+
+        String all() {
+            return findAll().stream().map(this::describe).collect(Collectors.joining(", "));
+        }
+
+        // a user never added gets an id no store has handed out
+        private Long id(int user) {
+            return user < ids.size() ? ids.get(user) : Long.MAX_VALUE - user;
+        }
+
+        private String describe(User user) {
+            return "#" + ids.indexOf(user.getId()) + " " + user.getName() + " " + user.getEmail();
+        }
+
+        private String outcome(Supplier<String> step) {
+            try {
+                return step.get();
+            } catch (BadRequestException | DataIntegrityViolationException e) {
+                return "duplicate email";
+            } catch (NotFoundException | EmptyResultDataAccessException e) {
+                return "not found";
+            }
+        }
+    }
+}
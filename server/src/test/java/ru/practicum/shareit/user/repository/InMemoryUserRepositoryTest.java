@@ -8,6 +8,12 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,14 +91,127 @@ class InMemoryUserRepositoryTest {
                 .name("name")
                 .email("email")
                 .build();
+        User user2 = User.builder()
+                .name("name2")
+                .email("email2")
+                .build();
         User update = User.builder()
-                .id(1L)
+                .id(2L)
                 .name("name2")
                 .email("email")
                 .build();
         repository.add(user);
+        repository.add(user2);
         Throwable exception = assertThrows(BadRequestException.class, () -> repository.update(update));
         assertEquals("Емайл уже используется", exception.getMessage());
+        assertEquals("email2", repository.getById(2L).getEmail());
+    }
+
+    @Test
+    void updateKeepingOwnEmail() {
+        repository.add(User.builder().name("name").email("email").build());
+        User save = repository.update(User.builder().id(1L).name("name2").email("email").build());
+
+        assertEquals("name2", save.getName());
+        assertEquals("email", save.getEmail());
+    }
+
+    @Test
+    void updateReleasesOldEmail() {
+        repository.add(User.builder().name("name").email("email").build());
+        repository.update(User.builder().id(1L).email("email2").build());
+
+        User add = repository.add(User.builder().name("name2").email("email").build());
+        assertEquals(2L, add.getId());
+        assertThrows(BadRequestException.class,
+                () -> repository.add(User.builder().name("name3").email("email2").build()));
+    }
+
+    @Test
+    void deleteReleasesEmail() {
+        repository.add(User.builder().name("name").email("email").build());
+        repository.deleteById(1L);
+
+        User add = repository.add(User.builder().name("name2").email("email").build());
+        assertEquals("email", repository.getById(add.getId()).getEmail());
+    }
+
+    @Test
+    void storedUserIsNotSharedWithCaller() {
+        User user = repository.add(User.builder().name("name").email("email").build());
+        user.setEmail("changed");
+        repository.getById(1L).setName("changed");
+
+        User saved = repository.getById(1L);
+        assertEquals("name", saved.getName());
+        assertEquals("email", saved.getEmail());
+        repository.add(User.builder().name("name2").email("changed").build());
+    }
+
+    @Test
+    void concurrentAddsGetDistinctIds() throws InterruptedException {
+        int threads = 8;
+        int perThread = 500;
+        runConcurrently(threads, thread -> {
+            for (int i = 0; i < perThread; i++) {
+                repository.add(User.builder().name("name").email(thread + "-" + i + "@mail.com").build());
+            }
+        });
+
+        List<User> all = repository.getAll();
+        assertEquals(threads * perThread, all.size());
+        assertEquals(threads * perThread, all.stream().map(User::getId).distinct().count());
+    }
+
+    @Test
+    void concurrentAddsOfOneEmailHaveOneWinner() throws InterruptedException {
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(8, thread -> {
+            try {
+                repository.add(User.builder().name("name" + thread).email("email").build());
+            } catch (BadRequestException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, repository.getAll().size());
+        assertEquals(7, rejected.get());
+    }
+
+    @Test
+    void concurrentUpdatesToOneEmailHaveOneWinner() throws InterruptedException {
+        for (int i = 0; i < 8; i++) {
+            repository.add(User.builder().name("name").email("email" + i).build());
+        }
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(8, thread -> {
+            try {
+                repository.update(User.builder().id(thread + 1L).email("taken").build());
+            } catch (BadRequestException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(7, rejected.get());
+        assertEquals(1, repository.getAll().stream().filter(u -> u.getEmail().equals("taken")).count());
+        // the seven losers kept their emails, the winner's old one is free again
+        assertEquals(7, repository.getAll().stream().filter(u -> u.getEmail().startsWith("email")).count());
+    }
+
+    private void runConcurrently(int threads, IntConsumer task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            executor.submit(() -> {
+                start.await();
+                task.accept(thread);
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
     }
 
     @Test
@@ -9,10 +9,10 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.InMemoryUserRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -22,7 +22,6 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
     @Mock
     private UserRepository userRepository;
-    private final InMemoryUserRepository memoryRepository = new InMemoryUserRepository();
     private UserMapper mapper;
     private UserService service;
 
@@ -48,7 +47,6 @@ class UserServiceTest {
 
         service = new UserServiceImpl(
                 userRepository,
-                memoryRepository,
                 mapper
         );
     }
@@ -156,6 +154,20 @@ class UserServiceTest {
         assertEquals("Пользователь с id " + 1L + " не найден", exception.getMessage());
     }
 
+    @Test
+    void getUserTagFollowsVersion() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(2L));
+        assertEquals("u1.2", service.getUserTag(1L));
+        verify(userRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    void getUserTagThrowsNotFoundUserException() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+        Throwable exception = assertThrows(NotFoundException.class, () -> service.getUserTag(1L));
+        assertEquals("Пользователь с id " + 1L + " не найден", exception.getMessage());
+    }
+
     @Test
     void deleteUserById() {
         User user = new User(1L);
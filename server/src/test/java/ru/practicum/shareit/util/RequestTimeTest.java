@@ -0,0 +1,65 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestTimeTest {
+    private static final LocalDateTime FIRST = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    // moves one second forward on every read
+    private final Clock ticking = new Clock() {
+        private Instant instant = FIRST.toInstant(ZoneOffset.UTC);
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            Instant current = instant;
+            instant = instant.plusSeconds(1);
+            return current;
+        }
+    };
+    private final RequestTime requestTime = new RequestTime(ticking);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void oneRequestSeesOneInstant() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertEquals(FIRST, requestTime.now());
+        assertEquals(FIRST, requestTime.now());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertEquals(FIRST.plusSeconds(1), requestTime.now());
+    }
+
+    @Test
+    void outsideRequestEveryCallReadsTheClock() {
+        assertEquals(FIRST, requestTime.now());
+        assertEquals(FIRST.plusSeconds(1), requestTime.now());
+    }
+}